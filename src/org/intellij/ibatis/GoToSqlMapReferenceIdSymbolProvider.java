@@ -3,10 +3,10 @@ package org.intellij.ibatis;
 import com.intellij.navigation.NavigationItem;
 import com.intellij.openapi.module.Module;
 import com.intellij.util.xml.DomElement;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -15,18 +15,20 @@ import java.util.Set;
  * @author Jacky
  */
 public class GoToSqlMapReferenceIdSymbolProvider extends GoToSymbolProvider {
+    private static final SqlMapElementKind[] STATEMENT_KINDS = {SqlMapElementKind.SELECT, SqlMapElementKind.INSERT, SqlMapElementKind.UPDATE,
+            SqlMapElementKind.DELETE, SqlMapElementKind.STATEMENT, SqlMapElementKind.PROCEDURE};
 
     protected void getNames(@NotNull final Module module, final Set<String> result) {
         IbatisManager manager = IbatisManager.getInstance();
-        Map<String, DomElement> allReference = manager.getAllSqlMapReference(module);
-        GoToSymbolProvider.addNames(allReference.values(), result);
+        for (SqlMapElementKind kind : STATEMENT_KINDS) {
+            result.addAll(manager.getSqlMapElementNames(module, "", kind));
+        }
     }
 
     protected void getItems(@NotNull final Module module, final String name, final List<NavigationItem> result) {
-        IbatisManager manager = IbatisManager.getInstance();
-        Map<String, DomElement> allReference = manager.getAllSqlMapReference(module);
-        if (allReference.containsKey(name)) {
-            final NavigationItem item = GoToSymbolProvider.createNavigationItem(allReference.get(name));
+        DomElement reference = IbatisManager.getInstance().findSqlMapElement(module, name, STATEMENT_KINDS);
+        if (reference != null) {
+            final NavigationItem item = GoToSymbolProvider.createNavigationItem(reference);
             if (item != null) {
                 result.add(item);
             }
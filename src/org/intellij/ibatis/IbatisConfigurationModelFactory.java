@@ -1,20 +1,39 @@
 package org.intellij.ibatis;
 
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleFileIndex;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
 import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.*;
 import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.xml.XmlFile;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.messages.MessageBusConnection;
 import com.intellij.util.xml.DomElement;
 import com.intellij.util.xml.DomFileElement;
 import com.intellij.util.xml.DomManager;
 import com.intellij.util.xml.model.impl.DomModelFactory;
 import org.intellij.ibatis.dom.configuration.SqlMapConfig;
 import org.intellij.ibatis.impl.IbatisConfigurationModelImpl;
+import org.intellij.ibatis.index.XmlRootTagIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * iBATIS configuration model factory
@@ -22,10 +41,41 @@ import java.util.*;
  * @author Jacky
  */
 public class IbatisConfigurationModelFactory extends DomModelFactory<SqlMapConfig, IbatisConfigurationModel, PsiElement> {
-    private Map<String, Set<XmlFile>> CONFIGURATION_FILES = new HashMap<String, Set<XmlFile>>();
+    private final Map<Module, List<SmartPsiElementPointer<XmlFile>>> CONFIGURATION_FILES = new ConcurrentHashMap<Module, List<SmartPsiElementPointer<XmlFile>>>();
+    private final Project project;
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final AtomicLong configurationFilesModificationCount = new AtomicLong();
+    private final ModificationTracker configurationFilesTracker = new ModificationTracker() {
+        public long getModificationCount() {
+            return configurationFilesModificationCount.get();
+        }
+    };
 
     protected IbatisConfigurationModelFactory(DomManager domManager) {
         super(SqlMapConfig.class, domManager.getProject(), "iBATIS");
+        project = domManager.getProject();
+        MessageBusConnection connection = project.getMessageBus().connect(project);
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            public void before(List<? extends VFileEvent> events) {
+            }
+
+            public void after(List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    if (isConfigurationCandidate(event)) {
+                        invalidateConfigurationFiles();
+                        return;
+                    }
+                }
+            }
+        });
+        connection.subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootListener() {
+            public void beforeRootsChange(ModuleRootEvent event) {
+            }
+
+            public void rootsChanged(ModuleRootEvent event) {
+                invalidateConfigurationFiles();
+            }
+        });
     }
 
     @Nullable
@@ -47,8 +97,133 @@ public class IbatisConfigurationModelFactory extends DomModelFactory<SqlMapConfi
         return models;
     }
 
+    @Nullable
     public Set<XmlFile> getAllSqlMapConfigurationFile(final Module module) {
-        if (CONFIGURATION_FILES.containsKey(module.getName())) return CONFIGURATION_FILES.get(module.getName());
+        List<SmartPsiElementPointer<XmlFile>> pointers = CONFIGURATION_FILES.get(module);
+        if (pointers != null) {
+            Set<XmlFile> configurationFileSet = new HashSet<XmlFile>();
+            for (SmartPsiElementPointer<XmlFile> pointer : pointers) {
+                XmlFile xmlFile = pointer.getElement();
+                if (xmlFile == null || !xmlFile.isValid()) {    //file gone, look up again
+                    configurationFileSet = null;
+                    break;
+                }
+                configurationFileSet.add(xmlFile);
+            }
+            if (configurationFileSet != null) return configurationFileSet.isEmpty() ? null : configurationFileSet;
+        }
+        if (DumbService.getInstance(module.getProject()).isDumb()) return findSqlMapConfigurationFile(module);
+        Set<XmlFile> configurationFileSet = findSqlMapConfigurationFileInIndex(module);
+        SmartPointerManager pointerManager = SmartPointerManager.getInstance(module.getProject());
+        pointers = new ArrayList<SmartPsiElementPointer<XmlFile>>();
+        for (XmlFile xmlFile : configurationFileSet) {
+            pointers.add(pointerManager.createSmartPsiElementPointer(xmlFile));
+        }
+        if (!module.isDisposed()) CONFIGURATION_FILES.put(module, pointers);
+        return configurationFileSet.isEmpty() ? null : configurationFileSet;
+    }
+
+    /**
+     * get tracker which is changed when cached configuration files are dropped
+     *
+     * @return modification tracker
+     */
+    public ModificationTracker getConfigurationFilesTracker() {
+        return configurationFilesTracker;
+    }
+
+    /**
+     * find configuration file with the help of root tag index
+     *
+     * @param module module
+     * @return configuration files
+     */
+    @NotNull
+    private Set<XmlFile> findSqlMapConfigurationFileInIndex(Module module) {
+        Set<XmlFile> configurationFileSet = new HashSet<XmlFile>();
+        ModuleFileIndex fileIndex = ModuleRootManager.getInstance(module).getFileIndex();
+        PsiManager psiManager = PsiManager.getInstance(module.getProject());
+        Collection<VirtualFile> files = FileBasedIndex.getInstance().getContainingFiles(XmlRootTagIndex.NAME, "sqlMapConfig", GlobalSearchScope.moduleScope(module));
+        for (VirtualFile file : files) {
+            ProgressManager.getInstance().checkCanceled();
+            if (!fileIndex.isInSourceContent(file)) continue;
+            PsiFile psiFile = psiManager.findFile(file);
+            if (psiFile instanceof XmlFile) {
+                configurationFileSet.add((XmlFile) psiFile);
+            }
+        }
+        return configurationFileSet;
+    }
+
+    /**
+     * validate the VFS event may add, remove or move a configuration file, content changes are left to the root tag index
+     *
+     * @param event VFS event
+     * @return candidate mark
+     */
+    private static boolean isConfigurationCandidate(VFileEvent event) {
+        if (event instanceof VFilePropertyChangeEvent) {
+            VFilePropertyChangeEvent propertyEvent = (VFilePropertyChangeEvent) event;
+            if (!VirtualFile.PROP_NAME.equals(propertyEvent.getPropertyName())) return false;
+            return propertyEvent.getFile().isDirectory() || isXmlFileName(propertyEvent.getOldValue()) || isXmlFileName(propertyEvent.getNewValue());
+        }
+        if (event instanceof VFileCreateEvent) {
+            return ((VFileCreateEvent) event).isDirectory() || isXmlFileName(event.getPath());
+        }
+        if (event instanceof VFileCopyEvent) {
+            VFileCopyEvent copyEvent = (VFileCopyEvent) event;
+            return copyEvent.getFile().isDirectory() || isXmlFileName(copyEvent.getNewChildName());
+        }
+        if (event instanceof VFileDeleteEvent || event instanceof VFileMoveEvent) {
+            VirtualFile file = event instanceof VFileDeleteEvent ? ((VFileDeleteEvent) event).getFile() : ((VFileMoveEvent) event).getFile();
+            return file.isDirectory() || isXmlFileName(file.getName());
+        }
+        return false;
+    }
+
+    private static boolean isXmlFileName(Object name) {
+        return name instanceof String && ((String) name).endsWith(".xml");
+    }
+
+    /**
+     * drop cached configuration files and look them up again in background
+     */
+    private void invalidateConfigurationFiles() {
+        configurationFilesModificationCount.incrementAndGet();
+        if (CONFIGURATION_FILES.isEmpty()) return;
+        final Set<Module> modules = new HashSet<Module>(CONFIGURATION_FILES.keySet());
+        CONFIGURATION_FILES.clear();
+        if (!refreshScheduled.compareAndSet(false, true)) return;
+        DumbService.getInstance(project).runWhenSmart(new Runnable() {
+            public void run() {
+                ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+                    public void run() {
+                        refreshScheduled.set(false);
+                        ApplicationManager.getApplication().runReadAction(new Runnable() {
+                            public void run() {
+                                if (project.isDisposed() || DumbService.getInstance(project).isDumb()) return;
+                                for (Module module : modules) {
+                                    if (!module.isDisposed() && !CONFIGURATION_FILES.containsKey(module)) {
+                                        getAllSqlMapConfigurationFile(module);
+                                    }
+                                }
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * find configuration file by walking source roots, used while index is being built
+     *
+     * @param module module
+     * @return configuration files, null if not found
+     */
+    @Nullable
+    private Set<XmlFile> findSqlMapConfigurationFile(final Module module) {
+        final Set<XmlFile> configurationFileSet = new HashSet<XmlFile>();
         final ModuleRootManager rootManager = ModuleRootManager.getInstance(module);
         PsiManager psiManager = PsiManager.getInstance(module.getProject());
         for (VirtualFile root : rootManager.getSourceRoots()) {
@@ -56,19 +231,16 @@ public class IbatisConfigurationModelFactory extends DomModelFactory<SqlMapConfi
             if (sourceDir != null) {
                 sourceDir.accept(new XmlRecursiveElementVisitor() {
                     public void visitXmlFile(XmlFile xmlFile) {
+                        ProgressManager.getInstance().checkCanceled();
                         final DomFileElement fileElement = DomManager.getDomManager(module.getProject()).getFileElement(xmlFile, DomElement.class);
                         if (fileElement != null && fileElement.getRootElement() instanceof SqlMapConfig) {
-                            if (!CONFIGURATION_FILES.containsKey(module.getName())) {   //only one configuration file supported
-                                Set<XmlFile> configurationFileSet = new HashSet<XmlFile>();
-                                configurationFileSet.add(xmlFile);
-                                CONFIGURATION_FILES.put(module.getName(), configurationFileSet);
-                            }
+                            configurationFileSet.add(xmlFile);
                         }
                     }
                 });
             }
         }
-        return CONFIGURATION_FILES.get(module.getName());
+        return configurationFileSet.isEmpty() ? null : configurationFileSet;
     }
 
     protected IbatisConfigurationModel createCombinedModel(Set<XmlFile> xmlFiles, DomFileElement<SqlMapConfig> sqlMapConfigDomFileElement, IbatisConfigurationModel ibatisConfigurationModel, Module module) {
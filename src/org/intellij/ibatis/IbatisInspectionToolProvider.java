@@ -22,6 +22,9 @@ public class IbatisInspectionToolProvider implements InspectionToolProvider {
                 SymbolInSQLInspection.class,
                 ParameterMapInStatementInspection.class,
                 SelectResultClassAbsentInspection.class,
-                SemicolonEndInspection.class};
+                SemicolonEndInspection.class,
+                UnusedSqlMapElementInspection.class,
+                IncludeCycleInspection.class,
+                SqlMapBatchInspection.class};
     }
 }
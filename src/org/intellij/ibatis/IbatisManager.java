@@ -8,9 +8,11 @@ import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.xml.DomElement;
 import org.intellij.ibatis.dom.sqlMap.*;
 import org.intellij.ibatis.dom.configuration.TypeHandler;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -174,4 +176,68 @@ public abstract class IbatisManager {
      * @return type alias
      */
     public abstract Map<String, XmlTag> getAllTypeAlias2(PsiElement psiElement);
+
+    /**
+     * find element declared in SQL Map files by its unique name, the kinds are tried in order
+     *
+     * @param psiElement requested psi element
+     * @param id         unique name, namespace included if useStatementNamespaces enabled
+     * @param kinds      element kinds to search
+     * @return dom element, null if not found
+     */
+    @Nullable
+    public abstract DomElement findSqlMapElement(@Nullable PsiElement psiElement, @Nullable String id, @NotNull SqlMapElementKind... kinds);
+
+    /**
+     * find element declared in SQL Map files of module by its unique name, the kinds are tried in order
+     *
+     * @param module module
+     * @param id     unique name, namespace included if useStatementNamespaces enabled
+     * @param kinds  element kinds to search
+     * @return dom element, null if not found
+     */
+    @Nullable
+    public abstract DomElement findSqlMapElement(@Nullable Module module, @Nullable String id, @NotNull SqlMapElementKind... kinds);
+
+    /**
+     * validate element is declared in SQL Map files of the module, same as findSqlMapElement but no element is loaded
+     *
+     * @param psiElement requested psi element
+     * @param id         unique name, namespace included if useStatementNamespaces enabled
+     * @param kinds      element kinds to search
+     * @return declared mark
+     */
+    public abstract boolean isSqlMapElementDeclared(@Nullable PsiElement psiElement, @Nullable String id, @NotNull SqlMapElementKind... kinds);
+
+    /**
+     * get unique names of the kind which start with prefix, used by code completion
+     *
+     * @param psiElement requested psi element
+     * @param prefix     typed prefix
+     * @param kind       element kind
+     * @return sorted unique names
+     */
+    @NotNull
+    public abstract List<String> getSqlMapElementNames(@Nullable PsiElement psiElement, @NotNull String prefix, @NotNull SqlMapElementKind kind);
+
+    /**
+     * get unique names of the kind declared in module which start with prefix
+     *
+     * @param module module
+     * @param prefix name prefix
+     * @param kind   element kind
+     * @return sorted unique names
+     */
+    @NotNull
+    public abstract List<String> getSqlMapElementNames(@Nullable Module module, @NotNull String prefix, @NotNull SqlMapElementKind kind);
+
+    /**
+     * find class by qualified name, the result is cached per module
+     *
+     * @param psiElement requested psi element
+     * @param className  qualified class name
+     * @return PsiClass object, null if not found
+     */
+    @Nullable
+    public abstract PsiClass findClass(@NotNull PsiElement psiElement, @NotNull String className);
 }
@@ -1,24 +1,47 @@
 package org.intellij.ibatis;
 
 import com.intellij.codeInsight.intention.IntentionManager;
+import com.intellij.facet.Facet;
+import com.intellij.facet.FacetManager;
+import com.intellij.facet.FacetManagerAdapter;
 import com.intellij.openapi.components.ProjectComponent;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.util.xml.DomManager;
 import org.intellij.ibatis.intention.*;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * iBATIS Plugin project component
  *
  * @author Jacky
  */
 public class IbatisProjectComponent implements ProjectComponent {
+  private final Project project;
   private IbatisConfigurationModelFactory configurationModelFactory;
   private IbatisSqlMapModelFactory sqlMapModelFactory;
+  private final AtomicLong facetsModificationCount = new AtomicLong();
+  private final ModificationTracker facetsTracker = new ModificationTracker() {
+    public long getModificationCount() {
+      return facetsModificationCount.get();
+    }
+  };
 
-  public IbatisProjectComponent(DomManager domManager) {
+  public IbatisProjectComponent(Project project, DomManager domManager) {
+    this.project = project;
     configurationModelFactory = new IbatisConfigurationModelFactory(domManager);
     sqlMapModelFactory = new IbatisSqlMapModelFactory(domManager);
+    project.getMessageBus().connect(project).subscribe(FacetManager.FACETS_TOPIC, new FacetManagerAdapter() {
+      public void facetAdded(@NotNull Facet facet) {
+        facetsModificationCount.incrementAndGet();
+      }
+
+      public void facetRemoved(@NotNull Facet facet) {
+        facetsModificationCount.incrementAndGet();
+      }
+    });
   }
 
   public static IbatisProjectComponent getInstance(Project project) {
@@ -38,6 +61,7 @@ public class IbatisProjectComponent implements ProjectComponent {
 
   public void projectOpened() {
     registerIntentionActions();
+    IbatisWarmUpTask.queueWhenSmart(project);
   }
 
   public void projectClosed() {
@@ -51,6 +75,15 @@ public class IbatisProjectComponent implements ProjectComponent {
     return sqlMapModelFactory;
   }
 
+  /**
+   * get tracker which is changed when facet added to or removed from module
+   *
+   * @return modification tracker
+   */
+  public ModificationTracker getFacetsTracker() {
+    return facetsTracker;
+  }
+
   /**
    * register intention actions for project
    */
@@ -0,0 +1,148 @@
+package org.intellij.ibatis;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.xml.XmlFile;
+import org.intellij.ibatis.facet.IbatisFacet;
+import org.intellij.ibatis.model.SqlMapElementKind;
+import org.intellij.ibatis.util.BeanPropertyTable;
+import org.intellij.ibatis.util.IbatisUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * background task to build configuration model, symbol tables and bean property tables of all iBATIS modules after project opened,
+ * so the first completion or highlighting doesn't wait for them.
+ *
+ * @author Jacky
+ */
+public class IbatisWarmUpTask extends Task.Backgroundable {
+
+    public IbatisWarmUpTask(@NotNull Project project) {
+        super(project, "Preparing iBATIS SQL Maps", true);
+    }
+
+    /**
+     * queue warm-up task after indexing finished
+     *
+     * @param project project
+     */
+    public static void queueWhenSmart(@NotNull final Project project) {
+        DumbService.getInstance(project).runWhenSmart(new Runnable() {
+            public void run() {
+                if (!project.isDisposed()) new IbatisWarmUpTask(project).queue();
+            }
+        });
+    }
+
+    public void run(@NotNull final ProgressIndicator indicator) {
+        final Project project = getProject();
+        final List<Module> modules = new ArrayList<Module>();
+        ApplicationManager.getApplication().runReadAction(new Runnable() {
+            public void run() {
+                for (Module module : ModuleManager.getInstance(project).getModules()) {
+                    if (IbatisFacet.getInstance(module) != null) modules.add(module);
+                }
+            }
+        });
+        for (int i = 0; i < modules.size(); i++) {
+            Module module = modules.get(i);
+            indicator.checkCanceled();
+            indicator.setText2(module.getName());
+            indicator.setFraction((double) i / modules.size());
+            warmUp(module);
+        }
+        indicator.setFraction(1);
+    }
+
+    /**
+     * build the cached data of module, every step runs in its own short read action so write actions aren't held
+     * back for the whole module, the cancellation is checked between the steps.
+     *
+     * @param module iBATIS module
+     */
+    public static void warmUp(final Module module) {
+        final IbatisManager manager = IbatisManager.getInstance();
+        final XmlFile context = runStep(module, new Computable<XmlFile>() {
+            public XmlFile compute() {
+                IbatisConfigurationModel configurationModel = manager.getConfigurationModel(module);
+                if (configurationModel == null) return null;
+                Set<XmlFile> configFiles = configurationModel.getConfigFiles();
+                if (configFiles.isEmpty()) return null;
+                configurationModel.getSqlMapFiles();
+                return configFiles.iterator().next();
+            }
+        });
+        if (context == null) return;
+        runStep(module, new Computable<Object>() {
+            public Object compute() {
+                return IbatisUtil.isUseStatementNamespaces(module);
+            }
+        });
+        runStep(module, new Computable<Object>() {
+            public Object compute() {
+                return manager.getAllSqlMapReference(module).size();
+            }
+        });
+        runStep(module, new Computable<Object>() {
+            public Object compute() {
+                return manager.getAllTypeAlias(context);
+            }
+        });
+        List<PsiClass> beanClasses = runStep(module, new Computable<List<PsiClass>>() {
+            public List<PsiClass> compute() {
+                List<PsiClass> classes = new ArrayList<PsiClass>();
+                classes.addAll(manager.getAllResultMap(context).values());
+                classes.addAll(manager.getAllParameterMap(context).values());
+                return classes;
+            }
+        });
+        if (beanClasses == null) return;
+        for (final PsiClass psiClass : beanClasses) {
+            if (psiClass == null) continue;
+            runStep(module, new Computable<Object>() {
+                public Object compute() {
+                    return psiClass.isValid() ? BeanPropertyTable.getInstance(psiClass) : null;
+                }
+            });
+        }
+        for (final SqlMapElementKind kind : SqlMapElementKind.values()) {
+            runStep(module, new Computable<Object>() {
+                public Object compute() {
+                    return manager.getSqlMapElementNames(context, "", kind);
+                }
+            });
+        }
+    }
+
+    /**
+     * run one warm-up step in read action
+     *
+     * @param module iBATIS module
+     * @param step   warm-up step
+     * @return result of step, null if module is disposed or index is being built
+     */
+    @Nullable
+    private static <T> T runStep(final Module module, final Computable<T> step) {
+        ProgressManager.getInstance().checkCanceled();
+        return ApplicationManager.getApplication().runReadAction(new Computable<T>() {
+            public T compute() {
+                if (module.isDisposed() || module.getProject().isDisposed()) return null;
+                if (DumbService.getInstance(module.getProject()).isDumb()) return null;
+                return step.compute();
+            }
+        });
+    }
+}
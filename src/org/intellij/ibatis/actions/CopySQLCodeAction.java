@@ -3,21 +3,22 @@ package org.intellij.ibatis.actions;
 import com.intellij.openapi.actionSystem.*;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.ide.CopyPasteManager;
-import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.*;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.Function;
 import com.intellij.util.xml.DomElement;
 import com.intellij.util.xml.DomManager;
 import org.intellij.ibatis.dom.sqlMap.BaseStatement;
+import org.intellij.ibatis.model.InlineParameter;
 import org.intellij.ibatis.provider.*;
+import org.intellij.ibatis.util.BeanPropertyTable;
 import org.intellij.ibatis.util.IbatisUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.datatransfer.StringSelection;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 
 /**
  * action to copy SQL Code in statement
@@ -36,29 +37,14 @@ public class CopySQLCodeAction extends AnAction {
                     DomElement domElement = DomManager.getDomManager(e.getData(DataKeys.PROJECT)).getDomElement(xmlTag);
                     if (domElement != null && domElement instanceof BaseStatement) {
                         BaseStatement baseStatement = (BaseStatement) domElement;
-                        PsiClass parameterClass = baseStatement.getParameterClass().getValue();
-                        String SQLCode = IbatisUtil.getSQLForXmlTag(xmlTag);
-                        String pattern = "#[\\w:\\.]*#";
-                        if (parameterClass == null) {     //type is unknown
-                            SQLCode = SQLCode.replaceAll(pattern, "''");
-                        } else
-                        if (IbatisClassShortcutsReferenceProvider.isDomain(parameterClass.getName())) // domain class
-                        {
-                            List<String> inlineParameters = IbatisUtil.grep(SQLCode, pattern);
-                            for (String parameter : inlineParameters) {
-                                PsiClass referencedClass = parameterClass;
-                                String fieldName = parameter.replaceAll("#", "").replaceAll(":\\w*", "");
-                                String[] referencePath = fieldName.split("\\.");
-                                for (String part : referencePath) {
-                                    referencedClass = FieldAccessMethodReferenceProvider.findGetterMethodReturnType(referencedClass, "get" + StringUtil.capitalize(part));
-                                    if (referencedClass == null) break;
-                                }
-                                SQLCode = SQLCode.replaceAll(parameter, getDefaultValueForType(referencedClass == null ? "" : referencedClass.getQualifiedName()));
-                            }
-                        } else   //domain class
-                        {
-                            SQLCode = SQLCode.replaceAll(pattern, getDefaultValueForType(parameterClass.getQualifiedName()));
-                        }
+                        final PsiClass parameterClass = baseStatement.getParameterClass().getValue();
+                        String SQLCode = IbatisUtil.replaceInlineParameters(IbatisUtil.getSQLForXmlTag(xmlTag), IbatisUtil.getInlineParametersInSQL(xmlTag),
+                                new Function<InlineParameter, String>() {
+                                    public String fun(InlineParameter parameter) {
+                                        if (parameter.isSubstitution()) return null;    //$prop$ is kept
+                                        return getDefaultValue(parameterClass, parameter);
+                                    }
+                                });
                         CopyPasteManager copyPasteManager = CopyPasteManager.getInstance();
                         copyPasteManager.setContents(new StringSelection(SQLCode.trim()));
                     }
@@ -67,6 +53,23 @@ public class CopySQLCodeAction extends AnAction {
         }
     }
 
+    /**
+     * get default value for in line parameter according to parameter class
+     *
+     * @param parameterClass parameter class, null if unknown
+     * @param parameter      in line parameter
+     * @return default value
+     */
+    @NotNull
+    private String getDefaultValue(PsiClass parameterClass, InlineParameter parameter) {
+        if (parameterClass == null) return "''";    //type is unknown
+        if (IbatisClassShortcutsReferenceProvider.isDomain(parameterClass.getName())) {  //domain class
+            PsiClass referencedClass = BeanPropertyTable.resolveClass(parameterClass, parameter.getName().split("\\."));
+            return getDefaultValueForType(referencedClass == null ? "" : referencedClass.getQualifiedName());
+        }
+        return getDefaultValueForType(parameterClass.getQualifiedName());
+    }
+
     /**
      * get default value for type
      *
@@ -1,10 +1,13 @@
 package org.intellij.ibatis.actions;
 
 import com.intellij.codeInsight.hint.HintUtil;
-import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiType;
+import com.intellij.util.Function;
+import org.intellij.ibatis.model.BeanProperty;
+import org.intellij.ibatis.model.InlineParameter;
+import org.intellij.ibatis.util.BeanPropertyTable;
+import org.intellij.ibatis.util.IbatisUtil;
 
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
@@ -20,6 +23,7 @@ public class SQLPopupView {
     public JPanel mainPanel;
     public JTable paramsTable;
     private String rawSqlCode;
+    private List<InlineParameter> parameters;
     private Map<String, String> inlineParameters = new HashMap<String, String>();
     private PsiClass parameterClass;
 
@@ -35,20 +39,22 @@ public class SQLPopupView {
      * construct parameter table and SQL panel
      *
      * @param parameterClass parameter class
-     * @param parameters     parameter list
-     * @param rawSqlCode     SQL code
+     * @param parameters     in line parameters in SQL code
+     * @param rawSqlCode     SQL code which the parameters are scanned from
      */
-    public SQLPopupView(PsiClass parameterClass, Set<String> parameters, String rawSqlCode) {
+    public SQLPopupView(PsiClass parameterClass, List<InlineParameter> parameters, String rawSqlCode) {
         this.rawSqlCode = rawSqlCode;
+        this.parameters = parameters;
         this.parameterClass = parameterClass;
         try {
             ParametersTableModel tableModel = new ParametersTableModel();
-            for (String parameter : parameters) {
-                tableModel.add(parameter, "string", "");
-                updateParameterValue(parameter, "");
+            for (InlineParameter parameter : parameters) {
+                if (parameter.isSubstitution() || inlineParameters.containsKey(parameter.getName())) continue;
+                tableModel.add(parameter.getName(), "string", "");
+                updateParameterValue(parameter.getName(), "");
             }
             paramsTable.setModel(tableModel);
-            textPane.setText(rawSqlCode);
+            textPane.setText(rawSqlCode.trim());
             textPane.setBackground(HintUtil.INFORMATION_COLOR);
         }
         catch (Exception e) {
@@ -63,12 +69,10 @@ public class SQLPopupView {
      * @param value value
      */
     public void updateParameterValue(String name, String value) {
-        PsiMethod[] methodNames = parameterClass.findMethodsByName("get" + StringUtil.capitalize(name), true);
-        if (methodNames.length > 0l) {
-            PsiType returnType = methodNames[0].getReturnType();
-            if (returnType != null && "string".equalsIgnoreCase(returnType.getPresentableText())) {
-                value = "'" + value + "'";
-            }
+        BeanProperty property = BeanPropertyTable.resolve(parameterClass, name.split("\\."));
+        PsiType returnType = property == null || property.getGetter() == null ? null : property.getGetter().getReturnType();
+        if (returnType != null && "string".equalsIgnoreCase(returnType.getPresentableText())) {
+            value = "'" + value + "'";
         }
         inlineParameters.put(name, value);
         textPane.setText(getClearSQLCode());
@@ -80,11 +84,11 @@ public class SQLPopupView {
      * @return clear SQL Code
      */
     private String getClearSQLCode() {
-        String clearSQLCode = rawSqlCode;
-        for (Map.Entry<String, String> entry : inlineParameters.entrySet()) {
-            clearSQLCode = clearSQLCode.replaceAll("#" + entry.getKey() + "([^#]*)#", entry.getValue());
-        }
-        return clearSQLCode;
+        return IbatisUtil.replaceInlineParameters(rawSqlCode, parameters, new Function<InlineParameter, String>() {
+            public String fun(InlineParameter parameter) {
+                return parameter.isSubstitution() ? null : inlineParameters.get(parameter.getName());
+            }
+        }).trim();
     }
 
     /**
@@ -11,11 +11,11 @@ import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.xml.DomElement;
 import com.intellij.util.xml.DomManager;
 import org.intellij.ibatis.dom.sqlMap.BaseStatement;
-import org.intellij.ibatis.inspections.SymbolInSQLInspection;
+import org.intellij.ibatis.model.InlineParameter;
 import org.intellij.ibatis.provider.SqlMapSymbolCompletionData;
 import org.intellij.ibatis.util.IbatisUtil;
 
-import java.util.Set;
+import java.util.List;
 
 /**
  * SQL code preview action
@@ -40,9 +40,9 @@ public class SQLPreviewAction extends AnAction {
                     if (domElement != null && domElement instanceof BaseStatement) {
                         BaseStatement baseStatement = (BaseStatement) domElement;
                         PsiClass parameterClass = baseStatement.getParameterClass().getValue();
-                        Set<String> parameters = SymbolInSQLInspection.getAllParameterInTag(baseStatement.getXmlTag());
+                        List<InlineParameter> parameters = IbatisUtil.getInlineParametersInSQL(xmlTag);
                         String SQLCode = IbatisUtil.getSQLForXmlTag(xmlTag);
-                        showPopup(e.getData(DataKeys.PROJECT), e.getData(DataKeys.EDITOR), xmlTag.getAttributeValue("id"), SQLCode.trim(), parameterClass, parameters);
+                        showPopup(e.getData(DataKeys.PROJECT), e.getData(DataKeys.EDITOR), xmlTag.getAttributeValue("id"), SQLCode, parameterClass, parameters);
                     }
                 }
             }
@@ -58,9 +58,9 @@ public class SQLPreviewAction extends AnAction {
      * @param title          title
      * @param SQLCode        search text
      * @param parameterClass parameter class
-     * @param parameters     parameter names
+     * @param parameters     in line parameters in SQL code
      */
-    private void showPopup(Project project, Editor editor, String title, String SQLCode, PsiClass parameterClass, Set<String> parameters) {
+    private void showPopup(Project project, Editor editor, String title, String SQLCode, PsiClass parameterClass, List<InlineParameter> parameters) {
         SQLPopupView popupView = new SQLPopupView(parameterClass, parameters, SQLCode);
         JBPopup jbPopup = JBPopupFactory.getInstance()
                 .createComponentPopupBuilder(popupView.mainPanel, popupView.mainPanel)
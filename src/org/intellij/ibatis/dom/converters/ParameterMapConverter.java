@@ -1,29 +1,23 @@
 package org.intellij.ibatis.dom.converters;
 
 import com.intellij.openapi.util.text.StringUtil;
-import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.xml.*;
 import org.intellij.ibatis.IbatisManager;
 import org.intellij.ibatis.dom.sqlMap.ParameterMap;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
-
 /**
  * converter for parameter map reference
  *
  * @author Jacky
  */
 public class ParameterMapConverter extends Converter<ParameterMap> {
-    @SuppressWarnings({"ConstantConditions"}) @Nullable
+    @Nullable
     public ParameterMap fromString(@Nullable @NonNls String parameterMapName, ConvertContext convertContext) {
         if (StringUtil.isNotEmpty(parameterMapName)) {
-            Map<String, XmlTag> allParameterMap2 = IbatisManager.getInstance().getAllParameterMap2(convertContext.getXmlElement());
-            XmlTag tag = allParameterMap2.get(parameterMapName);
-            if (tag != null) {
-                return (ParameterMap) DomManager.getDomManager(convertContext.getXmlElement().getProject()).getDomElement(tag);
-            }
+            return (ParameterMap) IbatisManager.getInstance().findSqlMapElement(convertContext.getXmlElement(), parameterMapName, SqlMapElementKind.PARAMETER_MAP);
         }
         return null;
     }
@@ -8,6 +8,7 @@ import com.intellij.psi.xml.XmlAttributeValue;
 import com.intellij.util.xml.*;
 import org.intellij.ibatis.IbatisManager;
 import org.intellij.ibatis.dom.sqlMap.Select;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.intellij.ibatis.provider.XmlAttributeValuePsiReference;
 import org.intellij.ibatis.util.IbatisConstants;
 import org.jetbrains.annotations.*;
@@ -20,8 +21,7 @@ import java.util.*;
 public class SelectConverter extends Converter<Select> implements CustomReferenceConverter<Select> {
     @Nullable public Select fromString(@Nullable @NonNls String selectName, ConvertContext convertContext) {
         if (StringUtil.isNotEmpty(selectName)) {
-            Map<String, Select> allSelect = IbatisManager.getInstance().getAllSelect(convertContext.getReferenceXmlElement());
-            return allSelect.get(selectName);
+            return (Select) IbatisManager.getInstance().findSqlMapElement(convertContext.getReferenceXmlElement(), selectName, SqlMapElementKind.SELECT);
         }
         return null;
     }
@@ -48,8 +48,7 @@ public class SelectConverter extends Converter<Select> implements CustomReferenc
 
             @Nullable public PsiElement resolve() {
                 String resultMapId = getCanonicalText();
-                Map<String, Select> allResultMap = IbatisManager.getInstance().getAllSelect(getElement());
-                Select select = allResultMap.get(resultMapId);
+                DomElement select = IbatisManager.getInstance().findSqlMapElement(getElement(), resultMapId, SqlMapElementKind.SELECT);
                 return select == null ? null : select.getXmlTag();
             }
         }};
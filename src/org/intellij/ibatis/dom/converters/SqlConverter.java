@@ -5,11 +5,10 @@ import com.intellij.util.xml.ConvertContext;
 import com.intellij.util.xml.Converter;
 import org.intellij.ibatis.IbatisManager;
 import org.intellij.ibatis.dom.sqlMap.Sql;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
-
 /**
  * convert for sql reference
  *
@@ -18,8 +17,7 @@ import java.util.Map;
 public class SqlConverter extends Converter<Sql> {
     @Nullable public Sql fromString(@Nullable @NonNls String sqlName, ConvertContext convertContext) {
         if (StringUtil.isNotEmpty(sqlName)) {
-            Map<String, Sql> map = IbatisManager.getInstance().getAllSql(convertContext.getXmlElement());
-            return map.get(sqlName);
+            return (Sql) IbatisManager.getInstance().findSqlMapElement(convertContext.getXmlElement(), sqlName, SqlMapElementKind.SQL);
         } else return null;
     }
 
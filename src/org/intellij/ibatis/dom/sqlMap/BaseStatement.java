@@ -4,9 +4,11 @@ import com.intellij.javaee.model.xml.CommonDomModelElement;
 import com.intellij.psi.PsiClass;
 import com.intellij.util.xml.*;
 import org.intellij.ibatis.dom.converters.*;
+import org.intellij.ibatis.model.InlineParameter;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
+import java.util.List;
 
 /**
  * base statement in SQL Map file
@@ -48,6 +50,13 @@ public interface BaseStatement extends CommonDomModelElement, GenericDomValue<St
      */
     @NotNull public String getSQL();
 
+    /**
+     * get the in line parameters in SQL code
+     *
+     * @return in line parameter list
+     */
+    @NotNull public List<InlineParameter> getInlineParameters();
+
     /**
      * get icon flag
      * @param flag falg
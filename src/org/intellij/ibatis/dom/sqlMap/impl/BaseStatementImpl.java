@@ -8,7 +8,7 @@ import org.intellij.ibatis.util.IbatisUtil;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -30,7 +30,8 @@ public abstract class BaseStatementImpl implements BaseStatement {
      * @return in line parameter list
      */
     @NotNull public List<InlineParameter> getInlineParameters() {
-        return new ArrayList<InlineParameter>();
+        XmlTag tag = getXmlTag();
+        return tag == null ? Collections.<InlineParameter>emptyList() : IbatisUtil.getInlineParameters(tag);
     }
 
     /**
@@ -1,11 +1,19 @@
 package org.intellij.ibatis.impl;
 
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.xml.GenericAttributeValue;
 import com.intellij.util.xml.DomFileElement;
+import com.intellij.util.xml.DomManager;
 import com.intellij.util.xml.model.impl.DomModelImpl;
 import com.intellij.util.xml.model.impl.DomModelImpl;
 import org.intellij.ibatis.IbatisConfigurationModel;
@@ -20,6 +28,7 @@ import java.util.*;
  * iBATIS configuration model implementation
  */
 public class IbatisConfigurationModelImpl extends DomModelImpl<SqlMapConfig> implements IbatisConfigurationModel {
+    private static final Key<CachedValue<Set<XmlFile>>> SQL_MAP_FILES_KEY = Key.create("ibatis.sqlMap.files");
 
     public IbatisConfigurationModelImpl(final DomFileElement<SqlMapConfig> domFileElement, final Set<XmlFile> configFiles) {
         super(domFileElement, configFiles);
@@ -27,12 +36,56 @@ public class IbatisConfigurationModelImpl extends DomModelImpl<SqlMapConfig> imp
 
     @NotNull
     public Set<XmlFile> getSqlMapFiles() {
+        Set<XmlFile> configFiles = getConfigFiles();
+        if (configFiles.size() == 1) return getSqlMapFiles(configFiles.iterator().next());
         Set<XmlFile> xmlFiles = new HashSet<XmlFile>();
-        List<SqlMap> sqlMaps = getMergedModel().getSqlMaps();
-        for (SqlMap sqlMap : sqlMaps) {
-            PsiFile psiFile = sqlMap.getResource().getValue();
-            if (psiFile != null)
-                xmlFiles.add((XmlFile) psiFile);
+        for (XmlFile configFile : configFiles) {
+            xmlFiles.addAll(getSqlMapFiles(configFile));
+        }
+        return xmlFiles;
+    }
+
+    /**
+     * get the sql map files declared in one configuration file, the result is cached until the configuration file changed
+     *
+     * @param configFile configuration file
+     * @return xml files for sql map
+     */
+    @NotNull
+    private static Set<XmlFile> getSqlMapFiles(@NotNull final XmlFile configFile) {
+        CachedValue<Set<XmlFile>> cachedValue = configFile.getUserData(SQL_MAP_FILES_KEY);
+        if (cachedValue == null) {
+            cachedValue = CachedValuesManager.getManager(configFile.getProject()).createCachedValue(new CachedValueProvider<Set<XmlFile>>() {
+                public Result<Set<XmlFile>> compute() {
+                    Set<XmlFile> xmlFiles = new HashSet<XmlFile>();
+                    boolean unresolved = false;
+                    DomFileElement<SqlMapConfig> fileElement = DomManager.getDomManager(configFile.getProject()).getFileElement(configFile, SqlMapConfig.class);
+                    if (fileElement != null) {
+                        for (SqlMap sqlMap : fileElement.getRootElement().getSqlMaps()) {
+                            ProgressManager.getInstance().checkCanceled();
+                            PsiFile psiFile = sqlMap.getResource().getValue();
+                            if (psiFile instanceof XmlFile) {
+                                xmlFiles.add((XmlFile) psiFile);
+                            } else {
+                                unresolved = true;
+                            }
+                        }
+                    }
+                    Set<XmlFile> result = Collections.unmodifiableSet(xmlFiles);
+                    if (unresolved) {   //missing file may be created later
+                        return Result.create(result, configFile, ProjectRootManager.getInstance(configFile.getProject()), PsiModificationTracker.MODIFICATION_COUNT);
+                    }
+                    return Result.create(result, configFile, ProjectRootManager.getInstance(configFile.getProject()));
+                }
+            }, false);
+            configFile.putUserData(SQL_MAP_FILES_KEY, cachedValue);
+        }
+        Set<XmlFile> xmlFiles = cachedValue.getValue();
+        for (XmlFile xmlFile : xmlFiles) {
+            if (!xmlFile.isValid()) {   //sql map file reloaded
+                configFile.putUserData(SQL_MAP_FILES_KEY, null);
+                return getSqlMapFiles(configFile);
+            }
         }
         return xmlFiles;
     }
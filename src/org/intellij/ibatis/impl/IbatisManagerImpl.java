@@ -2,33 +2,54 @@ package org.intellij.ibatis.impl;
 
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.xml.DomElement;
-import com.intellij.util.xml.DomFileElement;
-import com.intellij.util.xml.DomUtil;
+import com.intellij.util.xml.DomManager;
 import org.intellij.ibatis.IbatisConfigurationModel;
 import org.intellij.ibatis.IbatisManager;
 import org.intellij.ibatis.IbatisProjectComponent;
 import org.intellij.ibatis.IbatisSqlMapModel;
 import org.intellij.ibatis.dom.sqlMap.*;
 import org.intellij.ibatis.dom.configuration.TypeHandler;
+import org.intellij.ibatis.index.SqlMapIdIndex;
+import org.intellij.ibatis.index.SqlMapIndexEntry;
+import org.intellij.ibatis.model.SqlMapElementKind;
+import org.intellij.ibatis.util.IbatisUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 @SuppressWarnings({"ConstantConditions"})
 public class IbatisManagerImpl extends IbatisManager {
+    private static final Key<IbatisSymbolTable> SYMBOL_TABLE_KEY = Key.create("ibatis.symbol.table");
     private Map<String, IbatisConfigurationModel> configurationModelMap = new HashMap<String, IbatisConfigurationModel>();
 
     public IbatisManagerImpl() {
     }
 
+    /**
+     * get configuration model of module, all configuration files in module are merged into one model
+     *
+     * @param module module
+     * @return configuration model, null if no configuration file found
+     */
     @Nullable public IbatisConfigurationModel getConfigurationModel(@NotNull Module module) {
         IbatisProjectComponent projectComponent = IbatisProjectComponent.getInstance(module.getProject());
         List<IbatisConfigurationModel> models = projectComponent.getConfigurationModelFactory().getAllModels(module);
@@ -36,32 +57,41 @@ public class IbatisManagerImpl extends IbatisManager {
         else return null;
     }
 
+    @Nullable public IbatisSqlMapModel getSqlMapModel(@Nullable PsiElement psiElement) {
+        if (psiElement == null) return null;
+        IbatisProjectComponent projectComponent = IbatisProjectComponent.getInstance(psiElement.getProject());
+        return projectComponent.getSqlMapModelFactory().getModel(psiElement);
+    }
+
     /**
-     * get unique name for xml tag if name space enabled
+     * get symbol table for the module of element
      *
-     * @param fileElement file element
-     * @param id          current id
-     * @return unique name
+     * @param psiElement requested psi element
+     * @return symbol table
      */
-    private String getUniqueName(DomFileElement fileElement, String id) {
-        IbatisConfigurationModel configurationModel = getConfigurationModel(ModuleUtil.findModuleForPsiElement(fileElement.getRootTag()));
-        if (configurationModel.isUseStatementNamespaces()) {
-            String namespace = fileElement.getRootTag().getAttributeValue("namespace");
-            if (namespace != null && namespace.length() > 0) {
-                return namespace + "." + id;
-            } else {
-                return id;
-            }
-        } else {
-            return id;
-        }
+    @NotNull private IbatisSymbolTable getSymbolTable(@Nullable PsiElement psiElement) {
+        if (psiElement == null) return IbatisSymbolTable.EMPTY;
+        return getSymbolTable(ModuleUtil.findModuleForPsiElement(psiElement));
     }
 
-
-    @Nullable public IbatisSqlMapModel getSqlMapModel(@Nullable PsiElement psiElement) {
-        if (psiElement == null) return null;
-        IbatisProjectComponent projectComponent = IbatisProjectComponent.getInstance(psiElement.getProject());
-        return projectComponent.getSqlMapModelFactory().getModel(psiElement);
+    /**
+     * get symbol table for module, only the files changed since last call are collected again
+     *
+     * @param module module
+     * @return symbol table
+     */
+    @NotNull private IbatisSymbolTable getSymbolTable(@Nullable Module module) {
+        if (module == null) return IbatisSymbolTable.EMPTY;
+        IbatisSymbolTable symbolTable;
+        synchronized (SYMBOL_TABLE_KEY) {
+            symbolTable = module.getUserData(SYMBOL_TABLE_KEY);
+            if (symbolTable == null) {
+                symbolTable = new IbatisSymbolTable(module);
+                module.putUserData(SYMBOL_TABLE_KEY, symbolTable);
+            }
+        }
+        symbolTable.update();
+        return symbolTable;
     }
 
     /**
@@ -71,18 +101,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return type alias map
      */
     public Map<String, PsiClass> getAllTypeAlias(PsiElement psiElement) {
-        Map<String, PsiClass> allAliasMap = new HashMap<String, PsiClass>();
-        Module module = ModuleUtil.findModuleForPsiElement(psiElement);
-        IbatisProjectComponent projectComponent = IbatisProjectComponent.getInstance(module.getProject());
-        List<IbatisConfigurationModel> configurationModels = projectComponent.getConfigurationModelFactory().getAllModels(module);
-        for (IbatisConfigurationModel configurationModel : configurationModels) {
-            allAliasMap.putAll(configurationModel.getTypeAlias());
-        }
-        List<IbatisSqlMapModel> sqlMapModels = projectComponent.getSqlMapModelFactory().getAllModels(module);
-        for (IbatisSqlMapModel sqlMapModel : sqlMapModels) {
-            allAliasMap.putAll(sqlMapModel.getTypeAlias());
-        }
-        return allAliasMap;
+        return getSymbolTable(psiElement).getTypeAliasClasses();
     }
 
      /**
@@ -91,20 +110,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return type handler map
      */
     public Map<String, TypeHandler> getAllTypeHandlers(PsiElement psiElement) {
-        Map<String, TypeHandler> typeHandlerMap = new HashMap<String, TypeHandler>();
-        Module module = ModuleUtil.findModuleForPsiElement(psiElement);
-        IbatisProjectComponent projectComponent = IbatisProjectComponent.getInstance(module.getProject());
-        List<IbatisConfigurationModel> configurationModels = projectComponent.getConfigurationModelFactory().getAllModels(module);
-        for (IbatisConfigurationModel configurationModel : configurationModels) {
-            List<TypeHandler> typeHandlerList = configurationModel.getMergedModel().getTypeHandlers();
-            for (TypeHandler typeHandler : typeHandlerList) {
-                String javaType = typeHandler.getJavaType().getStringValue();
-                if (StringUtil.isNotEmpty(javaType)) {
-                    typeHandlerMap.put(javaType, typeHandler);
-                }
-            }
-        }
-        return typeHandlerMap;
+        return getSymbolTable(psiElement).getTypeHandlers();
     }
 
     /**
@@ -114,24 +120,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return type alias map
      */
     public Map<String, XmlTag> getAllTypeAlias2(PsiElement psiElement) {
-        Map<String, XmlTag> typeAlias = new HashMap<String, XmlTag>();
-        Module module = ModuleUtil.findModuleForPsiElement(psiElement);
-        IbatisProjectComponent projectComponent = IbatisProjectComponent.getInstance(module.getProject());
-        List<IbatisConfigurationModel> configurationModels = projectComponent.getConfigurationModelFactory().getAllModels(module);
-        for (IbatisConfigurationModel configurationModel : configurationModels) {
-            typeAlias.putAll(configurationModel.getTypeAlias2());
-        }
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<TypeAlias> typeAliases = model.getMergedModel().getTypeAlias();
-            for (TypeAlias alias : typeAliases) {
-                XmlTag xmlTag = alias.getXmlTag();
-                if (xmlTag != null) {
-                    typeAlias.put(alias.getAlias().getValue(), xmlTag);
-                }
-            }
-        }
-        return typeAlias;
+        return getSymbolTable(psiElement).getTypeAliasTags();
     }
 
     /**
@@ -141,18 +130,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return result map information
      */
     public Map<String, PsiClass> getAllResultMap(PsiElement psiElement) {
-        Map<String, PsiClass> resultMap = new HashMap<String, PsiClass>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<ResultMap> resultMapList = model.getMergedModel().getResultMaps();
-            for (ResultMap map : resultMapList) {
-                PsiClass psiClass = map.getClazz().getValue();
-                if (psiClass != null) {
-                    resultMap.put(getUniqueName(DomUtil.getFileElement(map), map.getId().getValue()), psiClass);
-                }
-            }
-        }
-        return resultMap;
+        return getSymbolTable(psiElement).getResultMapClasses();
     }
 
     /**
@@ -162,18 +140,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return result map information
      */
     public Map<String, XmlTag> getAllResultMap2(PsiElement psiElement) {
-        Map<String, XmlTag> resultMapInfo = new HashMap<String, XmlTag>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<ResultMap> resultMapList = model.getMergedModel().getResultMaps();
-            for (ResultMap resultMap : resultMapList) {
-                XmlTag xmlTag = resultMap.getClazz().getXmlTag();
-                if (xmlTag != null) {
-                    resultMapInfo.put(getUniqueName(DomUtil.getFileElement(resultMap), resultMap.getId().getValue()), xmlTag);
-                }
-            }
-        }
-        return resultMapInfo;
+        return getSymbolTable(psiElement).getResultMapTags();
     }
 
     /**
@@ -183,18 +150,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return parameter map information
      */
     public Map<String, PsiClass> getAllParameterMap(PsiElement psiElement) {
-        Map<String, PsiClass> parameterMap = new HashMap<String, PsiClass>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<ParameterMap> parameterMapList = model.getMergedModel().getParameterMap();
-            for (ParameterMap map : parameterMapList) {
-                PsiClass psiClass = map.getClazz().getValue();
-                if (psiClass != null) {
-                    parameterMap.put(getUniqueName(DomUtil.getFileElement(map), map.getId().getValue()), psiClass);
-                }
-            }
-        }
-        return parameterMap;
+        return getSymbolTable(psiElement).getParameterMapClasses();
     }
 
     /**
@@ -204,18 +160,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return parameter map information
      */
     public Map<String, XmlTag> getAllParameterMap2(PsiElement psiElement) {
-        Map<String, XmlTag> parameterMap = new HashMap<String, XmlTag>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<ParameterMap> parameterMapList = model.getMergedModel().getParameterMap();
-            for (ParameterMap map : parameterMapList) {
-                XmlTag xmlTag = map.getClazz().getXmlTag();
-                if (xmlTag != null) {
-                    parameterMap.put(getUniqueName(DomUtil.getFileElement(map), map.getId().getValue()), xmlTag);
-                }
-            }
-        }
-        return parameterMap;
+        return getSymbolTable(psiElement).getParameterMapTags();
     }
 
     /**
@@ -225,15 +170,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return select information
      */
     public Map<String, Select> getAllSelect(PsiElement psiElement) {
-        Map<String, Select> selectList = new HashMap<String, Select>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<Select> selects = model.getMergedModel().getSelects();
-            for (Select select : selects) {
-                selectList.put(getUniqueName(DomUtil.getFileElement(select), select.getId().getStringValue()), select);
-            }
-        }
-        return selectList;
+        return getSymbolTable(psiElement).getSelects();
     }
 
     /**
@@ -243,26 +180,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return sql information
      */
     public Map<String, Sql> getAllSql(PsiElement psiElement) {
-        Map<String, Sql> allSql = new HashMap<String, Sql>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<Sql> sqls = model.getMergedModel().getSqls();
-            for (Sql sql : sqls) {
-                allSql.put(getUniqueName(DomUtil.getFileElement(sql), sql.getId().getValue()), sql);
-            }
-        }
-        return allSql;
-    }
-
-    private List<IbatisSqlMapModel> getAllSqlMapModel(PsiElement psiElement) {
-        Module module = ModuleUtil.findModuleForPsiElement(psiElement);
-        IbatisProjectComponent projectComponent = IbatisProjectComponent.getInstance(module.getProject());
-        return projectComponent.getSqlMapModelFactory().getAllModels(module);
-    }
-
-    private List<IbatisSqlMapModel> getAllSqlMapModel(Module module) {
-        IbatisProjectComponent projectComponent = IbatisProjectComponent.getInstance(module.getProject());
-        return projectComponent.getSqlMapModelFactory().getAllModels(module);
+        return getSymbolTable(psiElement).getSqls();
     }
 
     /**
@@ -272,15 +190,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return insert information
      */
     public Map<String, Insert> getAllInsert(PsiElement psiElement) {
-        Map<String, Insert> allInsert = new HashMap<String, Insert>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<Insert> inserts = model.getMergedModel().getInserts();
-            for (Insert insert : inserts) {
-                allInsert.put(getUniqueName(DomUtil.getFileElement(insert), insert.getId().getValue()), insert);
-            }
-        }
-        return allInsert;
+        return getSymbolTable(psiElement).getInserts();
     }
 
     /**
@@ -290,15 +200,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return update information
      */
     public Map<String, Update> getAllUpdate(PsiElement psiElement) {
-        Map<String, Update> allUpdate = new HashMap<String, Update>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<Update> updates = model.getMergedModel().getUpdates();
-            for (Update update : updates) {
-                allUpdate.put(getUniqueName(DomUtil.getFileElement(update), update.getId().getValue()), update);
-            }
-        }
-        return allUpdate;
+        return getSymbolTable(psiElement).getUpdates();
     }
 
     /**
@@ -308,27 +210,11 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return delete information
      */
     public Map<String, Delete> getAllDelete(PsiElement psiElement) {
-        Map<String, Delete> allDelete = new HashMap<String, Delete>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<Delete> deletes = model.getMergedModel().getDeletes();
-            for (Delete delete : deletes) {
-                allDelete.put(getUniqueName(DomUtil.getFileElement(delete), delete.getId().getValue()), delete);
-            }
-        }
-        return allDelete;
+        return getSymbolTable(psiElement).getDeletes();
     }
 
     public Map<String, Statement> getAllStatement(PsiElement psiElement) {
-        Map<String, Statement> allStatement = new HashMap<String, Statement>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<Statement> statements = model.getMergedModel().getStatements();
-            for (Statement statement : statements) {
-                allStatement.put(getUniqueName(DomUtil.getFileElement(statement), statement.getId().getValue()), statement);
-            }
-        }
-        return allStatement;
+        return getSymbolTable(psiElement).getStatements();
     }
 
     /**
@@ -338,15 +224,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return procedure information
      */
     public Map<String, Procedure> getAllProcedure(PsiElement psiElement) {
-        Map<String, Procedure> allStatement = new HashMap<String, Procedure>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<Procedure> procedures = model.getMergedModel().getProcedures();
-            for (Procedure procedure : procedures) {
-                allStatement.put(getUniqueName(DomUtil.getFileElement(procedure), procedure.getId().getValue()), procedure);
-            }
-        }
-        return allStatement;
+        return getSymbolTable(psiElement).getProcedures();
     }
 
     /**
@@ -356,15 +234,7 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return all SQL Map files
      */
     public Map<String, DomElement> getAllSqlMapReference(Module module) {
-        Map<String, DomElement> allReference = new HashMap<String, DomElement>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(module);
-        for (IbatisSqlMapModel model : models) {
-            List<DomElement> references = model.getMergedModel().getAllReference();
-            for (DomElement reference : references) {
-                allReference.put(getUniqueName(DomUtil.getFileElement(reference), reference.getXmlTag().getAttributeValue("id")), reference);
-            }
-        }
-        return allReference;
+        return getSymbolTable(module).getReferences();
     }
 
     /**
@@ -374,15 +244,156 @@ public class IbatisManagerImpl extends IbatisManager {
      * @return cache model information
      */
     public Map<String, CacheModel> getAllCacheModel(PsiElement psiElement) {
-        Map<String, CacheModel> allCacheModel = new HashMap<String, CacheModel>();
-        List<IbatisSqlMapModel> models = getAllSqlMapModel(psiElement);
-        for (IbatisSqlMapModel model : models) {
-            List<CacheModel> cacheModels = model.getMergedModel().getCacheModels();
-            for (CacheModel cacheModel : cacheModels) {
-                allCacheModel.put(getUniqueName(DomUtil.getFileElement(cacheModel), cacheModel.getId().getValue()), cacheModel);
+        return getSymbolTable(psiElement).getCacheModels();
+    }
+
+    /**
+     * find element declared in SQL Map files by its unique name with the help of SQL Map id index,
+     * so only the matched elements are loaded
+     *
+     * @param psiElement requested psi element
+     * @param id         unique name
+     * @param kinds      element kinds to search
+     * @return dom element, null if not found
+     */
+    @Nullable public DomElement findSqlMapElement(@Nullable PsiElement psiElement, @Nullable String id, @NotNull SqlMapElementKind... kinds) {
+        if (psiElement == null) return null;
+        return findSqlMapElement(ModuleUtil.findModuleForPsiElement(psiElement), id, kinds);
+    }
+
+    @Nullable public DomElement findSqlMapElement(@Nullable Module module, @Nullable String id, @NotNull SqlMapElementKind... kinds) {
+        if (module == null || StringUtil.isEmpty(id)) return null;
+        IbatisConfigurationModel configurationModel = getConfigurationModel(module);
+        if (configurationModel == null) return null;
+        Project project = module.getProject();
+        if (DumbService.getInstance(project).isDumb()) {    //index is not ready, use the symbol table instead
+            return findSqlMapElementInModel(module, id, kinds);
+        }
+        List<Pair<VirtualFile, SqlMapIndexEntry>> matches = findVisibleEntries(module, configurationModel, id);
+        for (SqlMapElementKind kind : kinds) {
+            for (Pair<VirtualFile, SqlMapIndexEntry> match : matches) {
+                if (match.second.getKind() == kind) {
+                    DomElement domElement = getDomElement(project, match.first, match.second);
+                    if (domElement != null) return domElement;
+                }
+            }
+        }
+        return null;
+    }
+
+    public boolean isSqlMapElementDeclared(@Nullable PsiElement psiElement, @Nullable String id, @NotNull SqlMapElementKind... kinds) {
+        if (psiElement == null || StringUtil.isEmpty(id)) return false;
+        Module module = ModuleUtil.findModuleForPsiElement(psiElement);
+        if (module == null) return false;
+        IbatisConfigurationModel configurationModel = getConfigurationModel(module);
+        if (configurationModel == null) return false;
+        if (DumbService.getInstance(module.getProject()).isDumb()) {
+            return findSqlMapElementInModel(module, id, kinds) != null;
+        }
+        for (Pair<VirtualFile, SqlMapIndexEntry> match : findVisibleEntries(module, configurationModel, id)) {
+            for (SqlMapElementKind kind : kinds) {
+                if (match.second.getKind() == kind) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * find the index entries of the name which are declared in SQL Map files of module and visible under
+     * current useStatementNamespaces setting
+     *
+     * @param module             module
+     * @param configurationModel configuration model of module
+     * @param id                 unique name
+     * @return matched files and entries
+     */
+    private static List<Pair<VirtualFile, SqlMapIndexEntry>> findVisibleEntries(Module module, IbatisConfigurationModel configurationModel, String id) {
+        final boolean useStatementNamespaces = IbatisUtil.isUseStatementNamespaces(module);
+        final Set<VirtualFile> sqlMapFiles = new HashSet<VirtualFile>();
+        for (XmlFile xmlFile : configurationModel.getSqlMapFiles()) {
+            VirtualFile virtualFile = xmlFile.getVirtualFile();
+            if (virtualFile != null) sqlMapFiles.add(virtualFile);
+        }
+        final List<Pair<VirtualFile, SqlMapIndexEntry>> matches = new ArrayList<Pair<VirtualFile, SqlMapIndexEntry>>();
+        FileBasedIndex.getInstance().processValues(SqlMapIdIndex.NAME, id, null, new FileBasedIndex.ValueProcessor<List<SqlMapIndexEntry>>() {
+            public boolean process(VirtualFile file, List<SqlMapIndexEntry> entries) {
+                ProgressManager.getInstance().checkCanceled();
+                if (sqlMapFiles.contains(file)) {
+                    for (SqlMapIndexEntry entry : entries) {
+                        if (entry.isVisible(useStatementNamespaces)) {
+                            matches.add(Pair.create(file, entry));
+                        }
+                    }
+                }
+                return true;
             }
+        }, GlobalSearchScope.allScope(module.getProject()));
+        return matches;
+    }
+
+    /**
+     * get unique names of the kind which start with prefix, the names are kept sorted per symbol table version
+     *
+     * @param psiElement requested psi element
+     * @param prefix     typed prefix
+     * @param kind       element kind
+     * @return sorted unique names
+     */
+    @NotNull public List<String> getSqlMapElementNames(@Nullable PsiElement psiElement, @NotNull String prefix, @NotNull SqlMapElementKind kind) {
+        return getSymbolTable(psiElement).getNames(kind, prefix);
+    }
+
+    @NotNull public List<String> getSqlMapElementNames(@Nullable Module module, @NotNull String prefix, @NotNull SqlMapElementKind kind) {
+        return getSymbolTable(module).getNames(kind, prefix);
+    }
+
+    /**
+     * find class by qualified name, the result is cached in symbol table of module
+     *
+     * @param psiElement requested psi element
+     * @param className  qualified class name
+     * @return PsiClass object, null if not found
+     */
+    @Nullable public PsiClass findClass(@NotNull PsiElement psiElement, @NotNull String className) {
+        Module module = ModuleUtil.findModuleForPsiElement(psiElement);
+        if (module == null) {
+            Project project = psiElement.getProject();
+            return JavaPsiFacade.getInstance(project).findClass(className, GlobalSearchScope.allScope(project));
+        }
+        return getSymbolTable(module).findClass(className);
+    }
+
+    /**
+     * get dom element for index entry
+     *
+     * @param project project
+     * @param file    SQL Map file
+     * @param entry   index entry
+     * @return dom element, null if the index is out of date
+     */
+    @Nullable private DomElement getDomElement(Project project, VirtualFile file, SqlMapIndexEntry entry) {
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        if (!(psiFile instanceof XmlFile)) return null;
+        XmlTag xmlTag = PsiTreeUtil.getParentOfType(psiFile.findElementAt(entry.getOffset() + 1), XmlTag.class);
+        if (xmlTag == null || !xmlTag.getName().equals(entry.getKind().getTagName())) return null;
+        return DomManager.getDomManager(project).getDomElement(xmlTag);
+    }
+
+    /**
+     * find element in symbol table, used while index is being built
+     *
+     * @param module     module
+     * @param id         unique name
+     * @param kinds      element kinds to search
+     * @return dom element, null if not found
+     */
+    @Nullable private DomElement findSqlMapElementInModel(Module module, String id, SqlMapElementKind... kinds) {
+        IbatisSymbolTable symbolTable = getSymbolTable(module);
+        for (SqlMapElementKind kind : kinds) {
+            DomElement domElement = symbolTable.getElement(kind, id);
+            if (domElement != null) return domElement;
         }
-        return allCacheModel;
+        return null;
     }
 
 }
@@ -0,0 +1,521 @@
+package org.intellij.ibatis.impl;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.xml.DomElement;
+import org.intellij.ibatis.IbatisConfigurationModel;
+import org.intellij.ibatis.IbatisManager;
+import org.intellij.ibatis.dom.configuration.TypeHandler;
+import org.intellij.ibatis.dom.sqlMap.*;
+import org.intellij.ibatis.facet.IbatisFacet;
+import org.intellij.ibatis.model.SqlMapElementKind;
+import org.intellij.ibatis.model.SqlMapSymbol;
+import org.intellij.ibatis.util.IbatisUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * symbols declared in all iBATIS configuration and SQL Map files of module.
+ * every file contributes its own symbols, which are collected again only after the file is changed and then
+ * spliced into the module view. only compact symbols are kept, dom elements are resolved when they are requested.
+ * the module view is an immutable snapshot, the files are collected without lock and the new snapshot is only
+ * installed under lock, so readers never wait for a PSI walk.
+ *
+ * @author Jacky
+ */
+public class IbatisSymbolTable {
+    public static final IbatisSymbolTable EMPTY = new IbatisSymbolTable(null);
+    private static final Object CLASS_NOT_FOUND = new Object();
+
+    private final Module module;
+    private final Object installLock = new Object();
+    private volatile long modificationCount = -1;
+    private volatile Snapshot snapshot = new Snapshot(-1, -1, false, Collections.<FileSymbols>emptyList(), emptyElements());
+    private volatile ClassCache classCache = new ClassCache(snapshot, -1);
+    // symbols collected by the walks, kept when a walk is canceled so the next walk continues from them
+    private final Map<VirtualFile, FileSymbols> collectedSymbols = new ConcurrentHashMap<VirtualFile, FileSymbols>();
+
+    public IbatisSymbolTable(@Nullable Module module) {
+        this.module = module;
+    }
+
+    /**
+     * bring symbol table up to date, only the files changed since last update are collected again.
+     * every file is a unit of work, the collected files are kept if update is canceled and are reused by next call.
+     */
+    public void update() {
+        if (module == null) return;
+        PsiManager psiManager = PsiManager.getInstance(module.getProject());
+        long count = psiManager.getModificationTracker().getModificationCount();
+        if (count != modificationCount) {
+            Snapshot next = collectSnapshot(count);
+            synchronized (installLock) {
+                if (count > snapshot.modificationCount) {   //a newer snapshot may be installed by other thread
+                    snapshot = next;
+                    collectedSymbols.keySet().retainAll(next.files());
+                }
+                if (count > modificationCount) modificationCount = count;
+            }
+        }
+        long javaCount = psiManager.getModificationTracker().getJavaStructureModificationCount();
+        ClassCache cache = classCache;
+        if (cache.snapshot != snapshot || cache.javaStructureModificationCount != javaCount) {   //resolved classes are out of date
+            classCache = new ClassCache(snapshot, javaCount);
+        }
+    }
+
+    /**
+     * collect the files of module into new snapshot, no lock is held
+     *
+     * @param count PSI modification count the snapshot is built for
+     * @return new snapshot
+     */
+    private Snapshot collectSnapshot(long count) {
+        Snapshot base = snapshot;
+        IbatisConfigurationModel configurationModel = IbatisManager.getInstance().getConfigurationModel(module);
+        IbatisFacet facet = IbatisFacet.getInstance(module);
+        long facetCount = facet == null ? 0 : facet.getConfiguration().getModificationCount();
+        boolean namespaces = IbatisUtil.isUseStatementNamespaces(module);
+        List<XmlFile> files = new ArrayList<XmlFile>();
+        if (configurationModel != null) {
+            Set<XmlFile> configFiles = configurationModel.getConfigFiles();
+            files.addAll(configFiles);
+            for (XmlFile sqlMapFile : configurationModel.getSqlMapFiles()) {
+                if (!configFiles.contains(sqlMapFile)) files.add(sqlMapFile);
+            }
+        }
+        List<FileSymbols> contributions = new ArrayList<FileSymbols>(files.size());
+        for (XmlFile file : files) {
+            ProgressManager.getInstance().checkCanceled();
+            VirtualFile virtualFile = file.getVirtualFile();
+            FileSymbols symbols = virtualFile == null ? null : collectedSymbols.get(virtualFile);
+            if (symbols == null || !symbols.isUpToDate(file, namespaces, facetCount)) {
+                symbols = collect(file, namespaces, facetCount);
+                if (virtualFile != null) collectedSymbols.put(virtualFile, symbols);
+            }
+            contributions.add(symbols);
+        }
+        boolean sameFiles = base.facetModificationCount == facetCount && base.useStatementNamespaces == namespaces
+                && base.contributions.size() == contributions.size();
+        for (int i = 0; sameFiles && i < contributions.size(); i++) {
+            sameFiles = base.contributions.get(i).file == contributions.get(i).file;
+        }
+        Map<SqlMapElementKind, Map<String, SqlMapSymbol>> elements;
+        if (sameFiles) {
+            elements = splice(base, contributions);
+        } else {    //files added or removed, merge again
+            elements = emptyElements();
+            for (FileSymbols symbols : contributions) {
+                for (SqlMapElementKind kind : SqlMapElementKind.values()) {
+                    elements.get(kind).putAll(symbols.getSection(kind));
+                }
+            }
+        }
+        return new Snapshot(count, facetCount, namespaces, contributions, elements);
+    }
+
+    private static Map<SqlMapElementKind, Map<String, SqlMapSymbol>> emptyElements() {
+        Map<SqlMapElementKind, Map<String, SqlMapSymbol>> elements = new EnumMap<SqlMapElementKind, Map<String, SqlMapSymbol>>(SqlMapElementKind.class);
+        for (SqlMapElementKind kind : SqlMapElementKind.values()) {
+            elements.put(kind, new HashMap<String, SqlMapSymbol>());
+        }
+        return elements;
+    }
+
+    /**
+     * collect symbols declared in file, only the top level tags are visited and no dom element is created
+     *
+     * @param file                   configuration or SQL Map file
+     * @param useStatementNamespaces useStatementNamespaces setting in configuration
+     * @param facetCount             modification count of facet configuration
+     * @return symbols of file
+     */
+    private static FileSymbols collect(XmlFile file, boolean useStatementNamespaces, long facetCount) {
+        FileSymbols symbols = new FileSymbols(file, useStatementNamespaces, facetCount);
+        XmlTag rootTag = file.getDocument() == null ? null : file.getDocument().getRootTag();
+        if (rootTag == null) return symbols;
+        String prefix = "";
+        if ("sqlMap".equals(rootTag.getName())) {
+            String namespace = useStatementNamespaces ? IbatisUtil.getNamespace(file) : "";
+            if (namespace.length() > 0) prefix = namespace + ".";
+        } else if (!"sqlMapConfig".equals(rootTag.getName())) {
+            return symbols;
+        }
+        for (XmlTag xmlTag : rootTag.getSubTags()) {
+            ProgressManager.getInstance().checkCanceled();
+            SqlMapElementKind kind = SqlMapElementKind.fromTagName(xmlTag.getName());
+            if (kind == null) continue;
+            String id = xmlTag.getAttributeValue(kind.getIdAttribute());
+            if (id == null || id.length() == 0) continue;
+            String name = kind.isNamespaced() ? prefix + id : id;
+            symbols.getSection(kind).put(name, new SqlMapSymbol(name, kind, xmlTag));
+        }
+        return symbols;
+    }
+
+    /**
+     * replace symbols of the changed files in module view, the touched names are resolved again so the last declaration
+     * still wins. the sections of untouched kinds are shared with base snapshot, the touched ones are copied.
+     *
+     * @param base          snapshot with same files
+     * @param contributions new symbols of files in same order
+     * @return elements of new snapshot
+     */
+    private static Map<SqlMapElementKind, Map<String, SqlMapSymbol>> splice(Snapshot base, List<FileSymbols> contributions) {
+        Map<SqlMapElementKind, Map<String, SqlMapSymbol>> elements = new EnumMap<SqlMapElementKind, Map<String, SqlMapSymbol>>(base.elements);
+        for (SqlMapElementKind kind : SqlMapElementKind.values()) {
+            Set<String> names = new HashSet<String>();
+            for (int i = 0; i < contributions.size(); i++) {
+                FileSymbols oldSymbols = base.contributions.get(i);
+                FileSymbols newSymbols = contributions.get(i);
+                if (oldSymbols == newSymbols) continue;
+                names.addAll(oldSymbols.getSection(kind).keySet());
+                names.addAll(newSymbols.getSection(kind).keySet());
+            }
+            if (names.isEmpty()) continue;
+            Map<String, SqlMapSymbol> merged = new HashMap<String, SqlMapSymbol>(base.elements.get(kind));
+            for (String name : names) {
+                SqlMapSymbol winner = null;
+                for (int i = contributions.size() - 1; i >= 0 && winner == null; i--) {
+                    winner = contributions.get(i).getSection(kind).get(name);
+                }
+                if (winner == null) {
+                    merged.remove(name);
+                } else {
+                    merged.put(name, winner);
+                }
+            }
+            elements.put(kind, merged);
+        }
+        return elements;
+    }
+
+    /**
+     * get element by kind and unique name
+     *
+     * @param kind element kind
+     * @param name unique name
+     * @return dom element, null if not found
+     */
+    @Nullable public DomElement getElement(SqlMapElementKind kind, String name) {
+        SqlMapSymbol symbol = name == null ? null : snapshot.elements.get(kind).get(name);
+        return symbol == null ? null : symbol.getDomElement(module.getProject());
+    }
+
+    /**
+     * get unique names of the kind which start with prefix, binary search in the names sorted for current snapshot
+     *
+     * @param kind   element kind
+     * @param prefix name prefix
+     * @return sorted names
+     */
+    @NotNull public List<String> getNames(SqlMapElementKind kind, String prefix) {
+        String[] names = snapshot.getSortedNames(kind);
+        int start = Arrays.binarySearch(names, prefix);
+        if (start < 0) start = -start - 1;
+        List<String> matchedNames = new ArrayList<String>();
+        for (int i = start; i < names.length && names[i].startsWith(prefix); i++) {
+            matchedNames.add(names[i]);
+        }
+        return matchedNames;
+    }
+
+    /**
+     * find class by qualified name, the result is kept until Java structure or SQL Map files changed
+     *
+     * @param className qualified class name
+     * @return PsiClass object, null if not found
+     */
+    @Nullable public PsiClass findClass(@NotNull String className) {
+        Map<String, Object> resolvedClasses = classCache.resolvedClasses;
+        Object resolved = resolvedClasses.get(className);
+        if (resolved == CLASS_NOT_FOUND) return null;
+        if (resolved != null && ((PsiClass) resolved).isValid()) return (PsiClass) resolved;
+        Project project = module.getProject();
+        PsiClass psiClass = JavaPsiFacade.getInstance(project).findClass(className, GlobalSearchScope.allScope(project));
+        resolvedClasses.put(className, psiClass == null ? CLASS_NOT_FOUND : psiClass);
+        return psiClass;
+    }
+
+    public Map<String, Select> getSelects() {
+        return getElements(SqlMapElementKind.SELECT);
+    }
+
+    public Map<String, Insert> getInserts() {
+        return getElements(SqlMapElementKind.INSERT);
+    }
+
+    public Map<String, Update> getUpdates() {
+        return getElements(SqlMapElementKind.UPDATE);
+    }
+
+    public Map<String, Delete> getDeletes() {
+        return getElements(SqlMapElementKind.DELETE);
+    }
+
+    public Map<String, Statement> getStatements() {
+        return getElements(SqlMapElementKind.STATEMENT);
+    }
+
+    public Map<String, Procedure> getProcedures() {
+        return getElements(SqlMapElementKind.PROCEDURE);
+    }
+
+    public Map<String, Sql> getSqls() {
+        return getElements(SqlMapElementKind.SQL);
+    }
+
+    public Map<String, CacheModel> getCacheModels() {
+        return getElements(SqlMapElementKind.CACHE_MODEL);
+    }
+
+    public Map<String, TypeHandler> getTypeHandlers() {
+        return getElements(SqlMapElementKind.TYPE_HANDLER);
+    }
+
+    public Map<String, XmlTag> getResultMapTags() {
+        return new XmlTagMap(module, snapshot.elements.get(SqlMapElementKind.RESULT_MAP));
+    }
+
+    public Map<String, XmlTag> getParameterMapTags() {
+        return new XmlTagMap(module, snapshot.elements.get(SqlMapElementKind.PARAMETER_MAP));
+    }
+
+    public Map<String, XmlTag> getTypeAliasTags() {
+        return new XmlTagMap(module, snapshot.elements.get(SqlMapElementKind.TYPE_ALIAS));
+    }
+
+    /**
+     * get all select, insert, update, delete, statement and procedure
+     *
+     * @return statement map
+     */
+    public Map<String, DomElement> getReferences() {
+        return new SymbolMap<DomElement>(module, snapshot.getReferences());
+    }
+
+    public Map<String, PsiClass> getResultMapClasses() {
+        ClassCache cache = classCache;
+        if (cache.resultMapClasses == null) {   //computed without lock, a concurrent caller may compute the same map
+            Map<String, PsiClass> classes = new HashMap<String, PsiClass>();
+            for (Map.Entry<String, ResultMap> entry : new SymbolMap<ResultMap>(module, cache.snapshot.elements.get(SqlMapElementKind.RESULT_MAP)).entrySet()) {
+                PsiClass psiClass = entry.getValue().getClazz().getValue();
+                if (psiClass != null) classes.put(entry.getKey(), psiClass);
+            }
+            cache.resultMapClasses = Collections.unmodifiableMap(classes);
+        }
+        return cache.resultMapClasses;
+    }
+
+    public Map<String, PsiClass> getParameterMapClasses() {
+        ClassCache cache = classCache;
+        if (cache.parameterMapClasses == null) {
+            Map<String, PsiClass> classes = new HashMap<String, PsiClass>();
+            for (Map.Entry<String, ParameterMap> entry : new SymbolMap<ParameterMap>(module, cache.snapshot.elements.get(SqlMapElementKind.PARAMETER_MAP)).entrySet()) {
+                PsiClass psiClass = entry.getValue().getClazz().getValue();
+                if (psiClass != null) classes.put(entry.getKey(), psiClass);
+            }
+            cache.parameterMapClasses = Collections.unmodifiableMap(classes);
+        }
+        return cache.parameterMapClasses;
+    }
+
+    public Map<String, PsiClass> getTypeAliasClasses() {
+        ClassCache cache = classCache;
+        if (cache.typeAliasClasses == null) {
+            Map<String, PsiClass> classes = new HashMap<String, PsiClass>();
+            for (Map.Entry<String, DomElement> entry : new SymbolMap<DomElement>(module, cache.snapshot.elements.get(SqlMapElementKind.TYPE_ALIAS)).entrySet()) {
+                DomElement typeAlias = entry.getValue();
+                if (typeAlias instanceof TypeAlias) {
+                    classes.put(entry.getKey(), ((TypeAlias) typeAlias).getType().getValue());
+                } else if (typeAlias instanceof org.intellij.ibatis.dom.configuration.TypeAlias) {
+                    classes.put(entry.getKey(), ((org.intellij.ibatis.dom.configuration.TypeAlias) typeAlias).getType().getValue());
+                }
+            }
+            cache.typeAliasClasses = Collections.unmodifiableMap(classes);
+        }
+        return cache.typeAliasClasses;
+    }
+
+    private <T extends DomElement> Map<String, T> getElements(SqlMapElementKind kind) {
+        return new SymbolMap<T>(module, snapshot.elements.get(kind));
+    }
+
+    /**
+     * immutable module view built from the symbols of all files
+     */
+    private static class Snapshot {
+        private final long modificationCount;
+        private final long facetModificationCount;
+        private final boolean useStatementNamespaces;
+        private final List<FileSymbols> contributions;
+        private final Map<SqlMapElementKind, Map<String, SqlMapSymbol>> elements;
+        private final Map<SqlMapElementKind, String[]> sortedNames = new ConcurrentHashMap<SqlMapElementKind, String[]>();
+        private volatile Map<String, SqlMapSymbol> references;
+
+        private Snapshot(long modificationCount, long facetModificationCount, boolean useStatementNamespaces, List<FileSymbols> contributions,
+                         Map<SqlMapElementKind, Map<String, SqlMapSymbol>> elements) {
+            this.modificationCount = modificationCount;
+            this.facetModificationCount = facetModificationCount;
+            this.useStatementNamespaces = useStatementNamespaces;
+            this.contributions = contributions;
+            this.elements = elements;
+        }
+
+        private Set<VirtualFile> files() {
+            Set<VirtualFile> files = new HashSet<VirtualFile>();
+            for (FileSymbols symbols : contributions) {
+                files.add(symbols.file);
+            }
+            return files;
+        }
+
+        private String[] getSortedNames(SqlMapElementKind kind) {
+            String[] names = sortedNames.get(kind);
+            if (names == null) {
+                names = elements.get(kind).keySet().toArray(new String[0]);
+                Arrays.sort(names);
+                sortedNames.put(kind, names);
+            }
+            return names;
+        }
+
+        private Map<String, SqlMapSymbol> getReferences() {
+            Map<String, SqlMapSymbol> allReference = references;
+            if (allReference == null) {
+                allReference = new HashMap<String, SqlMapSymbol>();
+                for (SqlMapElementKind kind : SqlMapElementKind.values()) {
+                    if (kind.isStatement()) allReference.putAll(elements.get(kind));
+                }
+                references = allReference;
+            }
+            return allReference;
+        }
+    }
+
+    /**
+     * classes resolved from a snapshot, dropped when the snapshot or Java structure is changed
+     */
+    private static class ClassCache {
+        private final Snapshot snapshot;
+        private final long javaStructureModificationCount;
+        private final Map<String, Object> resolvedClasses = new ConcurrentHashMap<String, Object>();
+        private volatile Map<String, PsiClass> resultMapClasses;
+        private volatile Map<String, PsiClass> parameterMapClasses;
+        private volatile Map<String, PsiClass> typeAliasClasses;
+
+        private ClassCache(Snapshot snapshot, long javaStructureModificationCount) {
+            this.snapshot = snapshot;
+            this.javaStructureModificationCount = javaStructureModificationCount;
+        }
+    }
+
+    /**
+     * symbols contributed by one file
+     */
+    private static class FileSymbols {
+        private final VirtualFile file;
+        private final long modificationStamp;
+        private final boolean useStatementNamespaces;
+        private final long facetModificationCount;
+        private final Map<SqlMapElementKind, Map<String, SqlMapSymbol>> sections = new EnumMap<SqlMapElementKind, Map<String, SqlMapSymbol>>(SqlMapElementKind.class);
+
+        private FileSymbols(XmlFile file, boolean useStatementNamespaces, long facetModificationCount) {
+            this.file = file.getVirtualFile();
+            this.modificationStamp = file.getModificationStamp();
+            this.useStatementNamespaces = useStatementNamespaces;
+            this.facetModificationCount = facetModificationCount;
+            for (SqlMapElementKind kind : SqlMapElementKind.values()) {
+                sections.put(kind, new HashMap<String, SqlMapSymbol>());
+            }
+        }
+
+        private boolean isUpToDate(XmlFile xmlFile, boolean useStatementNamespaces, long facetModificationCount) {
+            return xmlFile.isValid() && xmlFile.getModificationStamp() == modificationStamp
+                    && useStatementNamespaces == this.useStatementNamespaces && facetModificationCount == this.facetModificationCount;
+        }
+
+        private Map<String, SqlMapSymbol> getSection(SqlMapElementKind kind) {
+            return sections.get(kind);
+        }
+    }
+
+    /**
+     * read only view of symbols, the value is resolved when it is requested
+     */
+    private static abstract class LazySymbolMap<T> extends AbstractMap<String, T> {
+        protected final Module module;
+        private final Map<String, SqlMapSymbol> symbols;
+
+        private LazySymbolMap(Module module, Map<String, SqlMapSymbol> symbols) {
+            this.module = module;
+            this.symbols = symbols;
+        }
+
+        @Nullable protected abstract T resolve(SqlMapSymbol symbol);
+
+        public T get(Object key) {
+            SqlMapSymbol symbol = symbols.get(key);
+            return symbol == null ? null : resolve(symbol);
+        }
+
+        public boolean containsKey(Object key) {
+            return symbols.containsKey(key);
+        }
+
+        public Set<String> keySet() {
+            return Collections.unmodifiableSet(symbols.keySet());
+        }
+
+        public int size() {
+            return symbols.size();
+        }
+
+        public Set<Entry<String, T>> entrySet() {
+            Map<String, T> values = new HashMap<String, T>();
+            for (SqlMapSymbol symbol : symbols.values()) {
+                T value = resolve(symbol);
+                if (value != null) values.put(symbol.getName(), value);
+            }
+            return Collections.unmodifiableMap(values).entrySet();
+        }
+    }
+
+    /**
+     * dom element view of symbols
+     */
+    private static class SymbolMap<T extends DomElement> extends LazySymbolMap<T> {
+        private SymbolMap(Module module, Map<String, SqlMapSymbol> symbols) {
+            super(module, symbols);
+        }
+
+        @SuppressWarnings({"unchecked"})
+        protected T resolve(SqlMapSymbol symbol) {
+            return (T) symbol.getDomElement(module.getProject());
+        }
+    }
+
+    /**
+     * xml tag view of symbols
+     */
+    private static class XmlTagMap extends LazySymbolMap<XmlTag> {
+        private XmlTagMap(Module module, Map<String, SqlMapSymbol> symbols) {
+            super(module, symbols);
+        }
+
+        protected XmlTag resolve(SqlMapSymbol symbol) {
+            return symbol.getXmlTag(module.getProject());
+        }
+    }
+}
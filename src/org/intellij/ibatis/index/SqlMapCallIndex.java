@@ -0,0 +1,177 @@
+package org.intellij.ibatis.index;
+
+import com.intellij.openapi.fileTypes.StdFileTypes;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.intellij.ibatis.provider.SqlClientElementFilter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * index for the statement ids passed to SqlMapClient style calls in Java files, key is the string literal of first
+ * argument and value is the offsets of the literals. only the text is scanned, the calls are verified by reference later.
+ *
+ * @author Jacky
+ */
+public class SqlMapCallIndex extends FileBasedIndexExtension<String, List<Integer>> {
+    public static final ID<String, List<Integer>> NAME = ID.create("ibatis.sqlMap.call");
+    private static final int VERSION = 1;
+
+    private final KeyDescriptor<String> keyDescriptor = new EnumeratorStringDescriptor();
+
+    private final DataIndexer<String, List<Integer>, FileContent> indexer = new DataIndexer<String, List<Integer>, FileContent>() {
+        public Map<String, List<Integer>> map(FileContent inputData) {
+            CharSequence text = inputData.getContentAsText();
+            Map<String, List<Integer>> result = new HashMap<String, List<Integer>>();
+            int length = text.length();
+            int i = 0;
+            while (i < length) {
+                char c = text.charAt(i);
+                if (c == '/' && i + 1 < length && text.charAt(i + 1) == '/') {
+                    i = skipLine(text, i);
+                } else if (c == '/' && i + 1 < length && text.charAt(i + 1) == '*') {
+                    i = skipComment(text, i + 2);
+                } else if (c == '"' || c == '\'') {
+                    i = skipLiteral(text, i);
+                } else if (Character.isJavaIdentifierStart(c)) {
+                    int end = i + 1;
+                    while (end < length && Character.isJavaIdentifierPart(text.charAt(end))) end++;
+                    String identifier = text.subSequence(i, end).toString();
+                    if (SqlClientElementFilter.isSqlClientOperation(identifier.toLowerCase())) {
+                        addCall(text, end, result);
+                    }
+                    i = end;
+                } else {
+                    i++;
+                }
+            }
+            return result;
+        }
+    };
+
+    private final DataExternalizer<List<Integer>> valueExternalizer = new DataExternalizer<List<Integer>>() {
+        public void save(DataOutput out, List<Integer> offsets) throws IOException {
+            out.writeInt(offsets.size());
+            for (Integer offset : offsets) {
+                out.writeInt(offset);
+            }
+        }
+
+        public List<Integer> read(DataInput in) throws IOException {
+            int size = in.readInt();
+            List<Integer> offsets = new ArrayList<Integer>(size);
+            for (int i = 0; i < size; i++) {
+                offsets.add(in.readInt());
+            }
+            return offsets;
+        }
+    };
+
+    public ID<String, List<Integer>> getName() {
+        return NAME;
+    }
+
+    public DataIndexer<String, List<Integer>, FileContent> getIndexer() {
+        return indexer;
+    }
+
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return keyDescriptor;
+    }
+
+    public DataExternalizer<List<Integer>> getValueExternalizer() {
+        return valueExternalizer;
+    }
+
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new FileBasedIndex.InputFilter() {
+            public boolean acceptInput(VirtualFile file) {
+                return file.getFileType() == StdFileTypes.JAVA;
+            }
+        };
+    }
+
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    public int getVersion() {
+        return VERSION;
+    }
+
+    /**
+     * add the call if the first argument is a plain string literal
+     *
+     * @param text   file text
+     * @param offset offset after method name
+     * @param result index data
+     */
+    private static void addCall(CharSequence text, int offset, Map<String, List<Integer>> result) {
+        int i = skipWhitespace(text, offset);
+        if (i >= text.length() || text.charAt(i) != '(') return;
+        int start = skipWhitespace(text, i + 1);
+        if (start >= text.length() || text.charAt(start) != '"') return;
+        int end = start + 1;
+        while (end < text.length() && text.charAt(end) != '"') {
+            char c = text.charAt(end);
+            if (c == '\\' || c == '\n' || c == '\r') return;   //escaped or broken literal
+            end++;
+        }
+        if (end >= text.length()) return;
+        int next = skipWhitespace(text, end + 1);
+        if (next >= text.length() || (text.charAt(next) != ',' && text.charAt(next) != ')')) return;    //expression, not literal
+        String statementId = text.subSequence(start + 1, end).toString();
+        if (statementId.length() == 0) return;
+        List<Integer> offsets = result.get(statementId);
+        if (offsets == null) {
+            offsets = new ArrayList<Integer>(1);
+            result.put(statementId, offsets);
+        }
+        offsets.add(start);
+    }
+
+    private static int skipWhitespace(CharSequence text, int offset) {
+        int i = offset;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) i++;
+        return i;
+    }
+
+    private static int skipLine(CharSequence text, int offset) {
+        int i = offset;
+        while (i < text.length() && text.charAt(i) != '\n') i++;
+        return i;
+    }
+
+    private static int skipComment(CharSequence text, int offset) {
+        for (int i = offset; i + 1 < text.length(); i++) {
+            if (text.charAt(i) == '*' && text.charAt(i + 1) == '/') return i + 2;
+        }
+        return text.length();
+    }
+
+    /**
+     * skip string or char literal
+     *
+     * @param text   file text
+     * @param offset offset of opening quote
+     * @return offset after closing quote
+     */
+    private static int skipLiteral(CharSequence text, int offset) {
+        char quote = text.charAt(offset);
+        for (int i = offset + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote || c == '\n') {
+                return i + 1;
+            }
+        }
+        return text.length();
+    }
+}
@@ -0,0 +1,188 @@
+package org.intellij.ibatis.index;
+
+import com.intellij.openapi.fileTypes.StdFileTypes;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.intellij.util.text.CharSequenceReader;
+import com.intellij.util.xml.NanoXmlUtil;
+import org.intellij.ibatis.model.SqlMapElementKind;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * index for the elements declared in SQL Map files, key is the element name with and without namespace
+ *
+ * @author Jacky
+ */
+public class SqlMapIdIndex extends FileBasedIndexExtension<String, List<SqlMapIndexEntry>> {
+    public static final ID<String, List<SqlMapIndexEntry>> NAME = ID.create("ibatis.sqlMap.id");
+    private static final int VERSION = 2;
+
+    private final KeyDescriptor<String> keyDescriptor = new EnumeratorStringDescriptor();
+
+    private final DataIndexer<String, List<SqlMapIndexEntry>, FileContent> indexer = new DataIndexer<String, List<SqlMapIndexEntry>, FileContent>() {
+        public Map<String, List<SqlMapIndexEntry>> map(FileContent inputData) {
+            String text = inputData.getContentAsText().toString();
+            if (!text.contains("<sqlMap")) return Collections.emptyMap();
+            SqlMapBuilder builder = new SqlMapBuilder(text);
+            NanoXmlUtil.parse(new CharSequenceReader(text), builder);
+            return builder.result;
+        }
+    };
+
+    private final DataExternalizer<List<SqlMapIndexEntry>> valueExternalizer = new DataExternalizer<List<SqlMapIndexEntry>>() {
+        public void save(DataOutput out, List<SqlMapIndexEntry> entries) throws IOException {
+            out.writeInt(entries.size());
+            for (SqlMapIndexEntry entry : entries) {
+                out.writeByte(entry.getKind().ordinal());
+                out.writeInt(entry.getOffset());
+                out.writeByte(entry.getFlags());
+            }
+        }
+
+        public List<SqlMapIndexEntry> read(DataInput in) throws IOException {
+            int size = in.readInt();
+            List<SqlMapIndexEntry> entries = new ArrayList<SqlMapIndexEntry>(size);
+            SqlMapElementKind[] kinds = SqlMapElementKind.values();
+            for (int i = 0; i < size; i++) {
+                SqlMapElementKind kind = kinds[in.readByte()];
+                int offset = in.readInt();
+                entries.add(new SqlMapIndexEntry(kind, offset, in.readByte()));
+            }
+            return entries;
+        }
+    };
+
+    public ID<String, List<SqlMapIndexEntry>> getName() {
+        return NAME;
+    }
+
+    public DataIndexer<String, List<SqlMapIndexEntry>, FileContent> getIndexer() {
+        return indexer;
+    }
+
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return keyDescriptor;
+    }
+
+    public DataExternalizer<List<SqlMapIndexEntry>> getValueExternalizer() {
+        return valueExternalizer;
+    }
+
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new FileBasedIndex.InputFilter() {
+            public boolean acceptInput(VirtualFile file) {
+                return file.getFileType() == StdFileTypes.XML;
+            }
+        };
+    }
+
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    public int getVersion() {
+        return VERSION;
+    }
+
+    /**
+     * builder to collect the top level elements of sqlMap root tag
+     */
+    private static class SqlMapBuilder extends NanoXmlUtil.IXMLBuilderAdapter {
+        private final Map<String, List<SqlMapIndexEntry>> result = new HashMap<String, List<SqlMapIndexEntry>>();
+        private final String text;
+        private int depth = 0;
+        private int position = 0;
+        private String namespace;
+        private SqlMapElementKind kind;
+        private int offset;
+        private String id;
+
+        private SqlMapBuilder(String text) {
+            this.text = text;
+        }
+
+        public void startElement(String name, String nsPrefix, String nsURI, String systemID, int lineNr) throws Exception {
+            depth++;
+            if (depth == 1 && !name.equals("sqlMap")) stop();
+            kind = depth == 2 ? SqlMapElementKind.fromTagName(name) : null;
+            if (kind != null) {
+                offset = findTagOffset(name);
+                id = null;
+            }
+        }
+
+        public void addAttribute(String key, String nsPrefix, String nsURI, String value, String type) throws Exception {
+            if (depth == 1 && key.equals("namespace")) {
+                namespace = value;
+            } else if (kind != null && key.equals(kind.getIdAttribute())) {
+                id = value;
+            }
+        }
+
+        public void elementAttributesProcessed(String name, String nsPrefix, String nsURI) throws Exception {
+            if (kind == null || id == null || id.length() == 0 || offset == -1) return;
+            if (kind.isNamespaced() && namespace != null && namespace.length() > 0) {
+                addEntry(namespace + "." + id, new SqlMapIndexEntry(kind, offset, true, false));
+                addEntry(id, new SqlMapIndexEntry(kind, offset, false, true));
+            } else {
+                addEntry(id, new SqlMapIndexEntry(kind, offset, true, true));
+            }
+            kind = null;
+        }
+
+        public void endElement(String name, String nsPrefix, String nsURI) throws Exception {
+            depth--;
+        }
+
+        private void addEntry(String key, SqlMapIndexEntry entry) {
+            List<SqlMapIndexEntry> entries = result.get(key);
+            if (entries == null) {
+                entries = new ArrayList<SqlMapIndexEntry>(1);
+                result.put(key, entries);
+            }
+            entries.add(entry);
+        }
+
+        /**
+         * find offset of the start tag, elements are reported in document order so the text is scanned only once.
+         * comments and CDATA sections are skipped, and the name must be followed by white space, '>' or '/',
+         * so selectKey isn't taken for select
+         *
+         * @param name tag name
+         * @return offset of '<', -1 if not found
+         */
+        private int findTagOffset(String name) {
+            int length = text.length();
+            while (position < length) {
+                int index = text.indexOf('<', position);
+                if (index == -1) break;
+                if (text.startsWith("<!--", index)) {
+                    position = skipTo("-->", index + 4);
+                } else if (text.startsWith("<![CDATA[", index)) {
+                    position = skipTo("]]>", index + 9);
+                } else {
+                    position = index + 1;
+                    int end = index + 1 + name.length();
+                    if (text.startsWith(name, index + 1) && end < length) {
+                        char next = text.charAt(end);
+                        if (Character.isWhitespace(next) || next == '>' || next == '/') return index;
+                    }
+                }
+            }
+            position = length;
+            return -1;
+        }
+
+        private int skipTo(String terminator, int from) {
+            int index = text.indexOf(terminator, from);
+            return index == -1 ? text.length() : index + terminator.length();
+        }
+    }
+}
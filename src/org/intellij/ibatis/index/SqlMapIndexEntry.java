@@ -0,0 +1,54 @@
+package org.intellij.ibatis.index;
+
+import org.intellij.ibatis.model.SqlMapElementKind;
+
+/**
+ * value stored in SQL Map id index: element kind, tag offset and the name forms the key matches
+ *
+ * @author Jacky
+ */
+public class SqlMapIndexEntry {
+    private static final int QUALIFIED = 1;
+    private static final int PLAIN = 2;
+
+    private final SqlMapElementKind kind;
+    private final int offset;
+    private final int flags;
+
+    public SqlMapIndexEntry(SqlMapElementKind kind, int offset, boolean qualified, boolean plain) {
+        this(kind, offset, (qualified ? QUALIFIED : 0) | (plain ? PLAIN : 0));
+    }
+
+    SqlMapIndexEntry(SqlMapElementKind kind, int offset, int flags) {
+        this.kind = kind;
+        this.offset = offset;
+        this.flags = flags;
+    }
+
+    public SqlMapElementKind getKind() {
+        return kind;
+    }
+
+    /**
+     * get offset of the element's start tag in file
+     *
+     * @return text offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    int getFlags() {
+        return flags;
+    }
+
+    /**
+     * validate the key of entry is the unique name of element
+     *
+     * @param useStatementNamespaces useStatementNamespaces setting in configuration
+     * @return visible mark
+     */
+    public boolean isVisible(boolean useStatementNamespaces) {
+        return (flags & (useStatementNamespaces ? QUALIFIED : PLAIN)) != 0;
+    }
+}
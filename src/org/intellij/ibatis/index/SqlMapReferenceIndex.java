@@ -0,0 +1,95 @@
+package org.intellij.ibatis.index;
+
+import com.intellij.openapi.fileTypes.StdFileTypes;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.intellij.util.text.CharSequenceReader;
+import com.intellij.util.xml.NanoXmlUtil;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * index for the names referenced in SQL Map files: include refid, resultMap, parameterMap, resultMap extends,
+ * nested select and cacheModel flushOnExecute statement. key is the name as it is written.
+ *
+ * @author Jacky
+ */
+public class SqlMapReferenceIndex extends ScalarIndexExtension<String> {
+    public static final ID<String, Void> NAME = ID.create("ibatis.sqlMap.reference");
+    private static final int VERSION = 1;
+
+    private final KeyDescriptor<String> keyDescriptor = new EnumeratorStringDescriptor();
+
+    private final DataIndexer<String, Void, FileContent> indexer = new DataIndexer<String, Void, FileContent>() {
+        public Map<String, Void> map(FileContent inputData) {
+            String text = inputData.getContentAsText().toString();
+            if (!text.contains("<sqlMap")) return Collections.emptyMap();
+            ReferenceBuilder builder = new ReferenceBuilder();
+            NanoXmlUtil.parse(new CharSequenceReader(text), builder);
+            return builder.result;
+        }
+    };
+
+    public ID<String, Void> getName() {
+        return NAME;
+    }
+
+    public DataIndexer<String, Void, FileContent> getIndexer() {
+        return indexer;
+    }
+
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return keyDescriptor;
+    }
+
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new FileBasedIndex.InputFilter() {
+            public boolean acceptInput(VirtualFile file) {
+                return file.getFileType() == StdFileTypes.XML;
+            }
+        };
+    }
+
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    public int getVersion() {
+        return VERSION;
+    }
+
+    /**
+     * builder to collect the reference attributes under sqlMap root tag
+     */
+    private static class ReferenceBuilder extends NanoXmlUtil.IXMLBuilderAdapter {
+        private final Map<String, Void> result = new HashMap<String, Void>();
+        private int depth = 0;
+        private String tagName;
+
+        public void startElement(String name, String nsPrefix, String nsURI, String systemID, int lineNr) throws Exception {
+            depth++;
+            if (depth == 1 && !name.equals("sqlMap")) stop();
+            tagName = name;
+        }
+
+        public void addAttribute(String key, String nsPrefix, String nsURI, String value, String type) throws Exception {
+            if (depth < 2 || value == null || value.length() == 0) return;
+            if (isReference(key)) result.put(value, null);
+        }
+
+        public void endElement(String name, String nsPrefix, String nsURI) throws Exception {
+            depth--;
+        }
+
+        private boolean isReference(String attributeName) {
+            if (attributeName.equals("refid") || attributeName.equals("resultMap") || attributeName.equals("parameterMap")) return true;
+            if (attributeName.equals("extends")) return tagName.equals("resultMap");
+            if (attributeName.equals("select")) return tagName.equals("result");
+            return attributeName.equals("statement") && tagName.equals("flushOnExecute");
+        }
+    }
+}
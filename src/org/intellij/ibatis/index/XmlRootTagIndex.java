@@ -0,0 +1,165 @@
+package org.intellij.ibatis.index;
+
+import com.intellij.openapi.fileTypes.StdFileTypes;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * index for root tag name of xml file, value is the public id of DOCTYPE declaration.
+ * only the header of file is scanned, so no PSI is needed to find iBATIS configuration files.
+ *
+ * @author Jacky
+ */
+public class XmlRootTagIndex extends FileBasedIndexExtension<String, String> {
+    public static final ID<String, String> NAME = ID.create("ibatis.xml.rootTag");
+    private static final int VERSION = 1;
+
+    private final EnumeratorStringDescriptor descriptor = new EnumeratorStringDescriptor();
+
+    private final DataIndexer<String, String, FileContent> indexer = new DataIndexer<String, String, FileContent>() {
+        public Map<String, String> map(FileContent inputData) {
+            CharSequence text = inputData.getContentAsText();
+            String publicId = "";
+            int length = text.length();
+            int i = 0;
+            while (i < length) {
+                if (text.charAt(i) != '<') {
+                    i++;
+                } else if (startsWith(text, i, "<?")) {
+                    i = skip(text, i, "?>");
+                } else if (startsWith(text, i, "<!--")) {
+                    i = skip(text, i, "-->");
+                } else if (startsWith(text, i, "<!DOCTYPE")) {
+                    int end = findDoctypeEnd(text, i);
+                    publicId = getPublicId(text, i, end);
+                    i = end;
+                } else if (i + 1 < length && Character.isLetter(text.charAt(i + 1))) {
+                    int end = i + 1;
+                    while (end < length && isNameChar(text.charAt(end))) end++;
+                    return Collections.singletonMap(text.subSequence(i + 1, end).toString(), publicId);
+                } else {
+                    return Collections.emptyMap();
+                }
+            }
+            return Collections.emptyMap();
+        }
+    };
+
+    public ID<String, String> getName() {
+        return NAME;
+    }
+
+    public DataIndexer<String, String, FileContent> getIndexer() {
+        return indexer;
+    }
+
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return descriptor;
+    }
+
+    public DataExternalizer<String> getValueExternalizer() {
+        return descriptor;
+    }
+
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new FileBasedIndex.InputFilter() {
+            public boolean acceptInput(VirtualFile file) {
+                return file.getFileType() == StdFileTypes.XML;
+            }
+        };
+    }
+
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    public int getVersion() {
+        return VERSION;
+    }
+
+    private static boolean startsWith(CharSequence text, int offset, String prefix) {
+        if (offset + prefix.length() > text.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(offset + i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * skip to the end of construct
+     *
+     * @param text   file text
+     * @param offset start offset of construct
+     * @param end    end mark of construct
+     * @return offset after end mark, text length if not closed
+     */
+    private static int skip(CharSequence text, int offset, String end) {
+        for (int i = offset; i < text.length(); i++) {
+            if (startsWith(text, i, end)) return i + end.length();
+        }
+        return text.length();
+    }
+
+    /**
+     * find end of DOCTYPE declaration, '>' in quoted literal or internal subset is skipped
+     *
+     * @param text   file text
+     * @param offset start offset of DOCTYPE
+     * @return offset after '>'
+     */
+    private static int findDoctypeEnd(CharSequence text, int offset) {
+        char quote = 0;
+        boolean subset = false;
+        for (int i = offset; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[') {
+                subset = true;
+            } else if (c == ']') {
+                subset = false;
+            } else if (c == '>' && !subset) {
+                return i + 1;
+            }
+        }
+        return text.length();
+    }
+
+    /**
+     * get public id in DOCTYPE declaration
+     *
+     * @param text  file text
+     * @param start start offset of DOCTYPE
+     * @param end   end offset of DOCTYPE
+     * @return public id, empty string if not declared
+     */
+    private static String getPublicId(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (startsWith(text, i, "PUBLIC")) {
+                for (int j = i + 6; j < end; j++) {
+                    char quote = text.charAt(j);
+                    if (quote == '"' || quote == '\'') {
+                        for (int k = j + 1; k < end; k++) {
+                            if (text.charAt(k) == quote) return text.subSequence(j + 1, k).toString();
+                        }
+                        return "";
+                    }
+                }
+                return "";
+            }
+        }
+        return "";
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c == ':';
+    }
+}
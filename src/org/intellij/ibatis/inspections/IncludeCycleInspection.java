@@ -0,0 +1,73 @@
+package org.intellij.ibatis.inspections;
+
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.xml.DomElement;
+import com.intellij.util.xml.highlighting.DomElementAnnotationHolder;
+import org.intellij.ibatis.IbatisSqlMapModel;
+import org.intellij.ibatis.dom.sqlMap.*;
+import org.intellij.ibatis.util.IbatisBundle;
+import org.intellij.ibatis.util.IbatisUtil;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * include cycle inspection, sql fragments including themselves directly or through other fragments never terminate
+ */
+public class IncludeCycleInspection extends SqlMapInspection {
+    @Nls
+    @NotNull
+    public String getDisplayName() {
+        return IbatisBundle.message("ibatis.sqlmap.inspection.includecycle.name");
+    }
+
+    @NonNls
+    @NotNull
+    public String getShortName() {
+        return IbatisBundle.message("ibatis.sqlmap.inspection.includecycle.id");
+    }
+
+    protected void checkSql(IbatisSqlMapModel sqlMapModel, SqlMap sqlMap, Sql sql, DomElementAnnotationHolder holder) {
+        checkIncludeCycle(sql, holder);
+    }
+
+    protected void checkSelect(IbatisSqlMapModel sqlMapModel, SqlMap sqlMap, Select select, DomElementAnnotationHolder holder) {
+        checkIncludeCycle(select, holder);
+    }
+
+    protected void checkInsert(IbatisSqlMapModel sqlMapModel, SqlMap sqlMap, Insert insert, DomElementAnnotationHolder holder) {
+        checkIncludeCycle(insert, holder);
+    }
+
+    protected void checkUpdate(IbatisSqlMapModel sqlMapModel, SqlMap sqlMap, Update update, DomElementAnnotationHolder holder) {
+        checkIncludeCycle(update, holder);
+    }
+
+    protected void checkDelete(IbatisSqlMapModel sqlMapModel, SqlMap sqlMap, Delete delete, DomElementAnnotationHolder holder) {
+        checkIncludeCycle(delete, holder);
+    }
+
+    protected void checkStatement(IbatisSqlMapModel sqlMapModel, SqlMap sqlMap, Statement statement, DomElementAnnotationHolder holder) {
+        checkIncludeCycle(statement, holder);
+    }
+
+    protected void checkProcedure(IbatisSqlMapModel sqlMapModel, SqlMap sqlMap, Procedure procedure, DomElementAnnotationHolder holder) {
+        checkIncludeCycle(procedure, holder);
+    }
+
+    /**
+     * report the include cycle reached from statement or sql fragment
+     *
+     * @param domElement statement or sql fragment
+     * @param holder     dom element annotation holder
+     */
+    private void checkIncludeCycle(DomElement domElement, DomElementAnnotationHolder holder) {
+        XmlTag xmlTag = domElement.getXmlTag();
+        if (xmlTag == null) return;
+        String cycle = IbatisUtil.getIncludeCycle(xmlTag);
+        if (cycle != null) {
+            holder.createProblem(domElement, HighlightSeverity.WARNING, IbatisBundle.message("ibatis.sqlmap.inspection.includecycle.error", cycle));
+        }
+    }
+}
@@ -4,7 +4,6 @@ import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiParameter;
@@ -15,7 +14,8 @@ import org.intellij.ibatis.IbatisSqlMapModel;
 import org.intellij.ibatis.dom.sqlMap.Result;
 import org.intellij.ibatis.dom.sqlMap.ResultMap;
 import org.intellij.ibatis.dom.sqlMap.SqlMap;
-import org.intellij.ibatis.provider.FieldAccessMethodReferenceProvider;
+import org.intellij.ibatis.model.BeanProperty;
+import org.intellij.ibatis.util.BeanPropertyTable;
 import org.intellij.ibatis.util.IbatisBundle;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NonNls;
@@ -48,23 +48,10 @@ public class NullSettedToPrimaryTypeInspection extends SqlMapInspection {
             if (result.getXmlTag().getAttribute("nullValue") == null) {    //null value setter
                 String propertyName = result.getProperty().getValue();
                 PsiMethod setMethod = null;
-                if (propertyName != null) {
-                    if (!propertyName.contains(".")) {
-                        PsiMethod[] methods = psiClass.findMethodsByName("set" + StringUtil.capitalize(propertyName), true);
-                        if (methods.length > 0) {
-                            setMethod = methods[0];
-                        }
-                    } else      //deep child
-                    {
-                        String field1 = propertyName.substring(0, propertyName.indexOf('.'));
-                        String field2 = propertyName.substring(propertyName.indexOf('.') + 1);
-                        PsiClass fieldClass = FieldAccessMethodReferenceProvider.findGetterMethodReturnType(psiClass, "get" + StringUtil.capitalize(field1));
-                        if (fieldClass != null) {
-                            PsiMethod[] methods = fieldClass.findMethodsByName("set" + StringUtil.capitalize(field2), true);
-                            if (methods.length > 0) {
-                                setMethod = methods[0];
-                            }
-                        }
+                if (propertyName != null) {     //deep child resolved by property path
+                    BeanProperty property = BeanPropertyTable.resolve(psiClass, propertyName.split("\\."));
+                    if (property != null) {
+                        setMethod = property.getSetter();
                     }
                 }
                 if (setMethod != null) {
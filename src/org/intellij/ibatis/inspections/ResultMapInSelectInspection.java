@@ -1,22 +1,22 @@
 package org.intellij.ibatis.inspections;
 
-import Zql.*;
 import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.xml.highlighting.DomElementAnnotationHolder;
 import org.intellij.ibatis.IbatisSqlMapModel;
 import org.intellij.ibatis.dom.sqlMap.Result;
 import org.intellij.ibatis.dom.sqlMap.ResultMap;
 import org.intellij.ibatis.dom.sqlMap.Select;
 import org.intellij.ibatis.dom.sqlMap.SqlMap;
+import org.intellij.ibatis.model.SelectList;
 import org.intellij.ibatis.util.IbatisBundle;
+import org.intellij.ibatis.util.IbatisUtil;
+import org.intellij.ibatis.util.SelectListCache;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.ByteArrayInputStream;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Vector;
 
 /**
  * result map in select inspection
@@ -36,43 +36,21 @@ public class ResultMapInSelectInspection extends SqlMapInspection {
 
     protected void checkSelect(IbatisSqlMapModel sqlMapModel, SqlMap sqlMap, Select select, DomElementAnnotationHolder holder) {
         ResultMap resultMap = select.getResultMap().getValue();
-        if (resultMap != null) {
-            String sql = select.getSQL() + ";";
-            sql = sql.toUpperCase();
-            if (sql.contains(" FROM ") && sql.contains("SELECT")) {
-                try {
-                    sql = sql.replaceAll("\\#[\\w\\.]*\\#", "''");
-                    sql = sql.replaceAll("\\$[\\w\\.]*\\$", "temp1");
-                    sql = sql.replaceAll("\\$\\{\\S*\\}\\.", ""); //property key replace
-                    Map<String, String> allSelectItems = new HashMap<String, String>();
-                    ZqlParser parser = new ZqlParser(new ByteArrayInputStream(sql.getBytes()));
-                    ZStatement statement = parser.readStatement();
-                    if (statement != null && statement instanceof ZQuery) {
-                        ZQuery query = (ZQuery) statement;
-                        Vector selectedItems = query.getSelect();
-                        for (Object selectedItem : selectedItems) {
-                            if (selectedItem instanceof ZSelectItem) {
-                                ZSelectItem zSelectItem = (ZSelectItem) selectedItem;
-                                String alias = zSelectItem.getAlias();
-                                if (alias == null) alias = zSelectItem.getColumn();
-                                if (alias.equals("*")) return;
-                                allSelectItems.put(alias.toUpperCase(), zSelectItem.getColumn());
+        XmlTag xmlTag = select.getXmlTag();
+        if (resultMap != null && xmlTag != null) {
+            SelectList selectList = SelectListCache.getSelectList(IbatisUtil.getDynamicSQLForXmlTag(xmlTag));
+            if (selectList != null && !selectList.isWildcard()) {
+                Map<String, String> allSelectItems = selectList.getColumns();
+                for (Result result : resultMap.getAllResults()) {
+                    String[] cols = getColumnsOfResultMap(result);
+                    if (cols != null && cols.length > 0) {
+                        for (String col : cols) {
+                            if (allSelectItems.get(col.toUpperCase()) == null) {
+                                holder.createProblem(select, HighlightSeverity.WARNING, IbatisBundle.message("ibatis.sqlmap.inspection.resulmapinselect.error", col));
+                                break;
                             }
                         }
                     }
-                    for (Result result : resultMap.getAllResults()) {
-                        String[] cols = getColumnsOfResultMap(result);
-                        if (cols != null && cols.length > 0) {
-                            for (String col : cols) {
-                                if (allSelectItems.get(col.toUpperCase()) == null) {
-                                    holder.createProblem(select, HighlightSeverity.WARNING, IbatisBundle.message("ibatis.sqlmap.inspection.resulmapinselect.error", col));
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                } catch (ParseException e) {
-
                 }
             }
         }
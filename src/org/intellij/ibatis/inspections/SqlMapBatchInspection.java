@@ -0,0 +1,149 @@
+package org.intellij.ibatis.inspections;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeHighlighting.HighlightDisplayLevel;
+import com.intellij.codeInspection.*;
+import com.intellij.codeInspection.reference.RefEntity;
+import com.intellij.concurrency.JobUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.util.Processor;
+import com.intellij.util.xml.DomFileElement;
+import com.intellij.util.xml.DomManager;
+import com.intellij.util.xml.highlighting.DomElementAnnotationHolderImpl;
+import com.intellij.util.xml.highlighting.DomElementProblemDescriptor;
+import com.intellij.util.xml.highlighting.DomElementsHighlightingUtil;
+import org.intellij.ibatis.IbatisConfigurationModel;
+import org.intellij.ibatis.IbatisInspectionToolProvider;
+import org.intellij.ibatis.IbatisManager;
+import org.intellij.ibatis.dom.sqlMap.SqlMap;
+import org.intellij.ibatis.util.IbatisBundle;
+import org.intellij.ibatis.util.IbatisUtil;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * batch variant of the SQL Map inspections for whole project analysis, all inspections of the plugin are run on the
+ * sqlMap files concurrently, sharing the thread safe symbol tables and problem caches.
+ * disabled by default, enable it and disable the single inspections in the profile used for batch run.
+ *
+ * @author Jacky
+ */
+public class SqlMapBatchInspection extends GlobalInspectionTool {
+    @Nls @NotNull public String getGroupDisplayName() {
+        return IbatisBundle.message("ibatis.sqlmap.inspection.group");
+    }
+
+    @Nls @NotNull public String getDisplayName() {
+        return IbatisBundle.message("ibatis.sqlmap.inspection.batch.name");
+    }
+
+    @NonNls @NotNull public String getShortName() {
+        return IbatisBundle.message("ibatis.sqlmap.inspection.batch.id");
+    }
+
+    @NotNull public HighlightDisplayLevel getDefaultLevel() {
+        return HighlightDisplayLevel.WARNING;
+    }
+
+    public boolean isEnabledByDefault() {
+        return false;
+    }
+
+    public boolean isGraphNeeded() {
+        return false;
+    }
+
+    /**
+     * create the SQL Map inspections registered by the plugin, the inspections don't keep state so they are shared by all threads
+     *
+     * @return inspections
+     */
+    private static SqlMapInspection[] createInspections() {
+        List<SqlMapInspection> inspections = new ArrayList<SqlMapInspection>();
+        for (Class inspectionClass : new IbatisInspectionToolProvider().getInspectionClasses()) {
+            if (!SqlMapInspection.class.isAssignableFrom(inspectionClass)) continue;
+            try {
+                inspections.add((SqlMapInspection) inspectionClass.newInstance());
+            } catch (InstantiationException e) {
+                throw new IllegalStateException(e);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return inspections.toArray(new SqlMapInspection[inspections.size()]);
+    }
+
+    public void runInspection(AnalysisScope scope, final InspectionManager manager, final GlobalInspectionContext globalContext,
+                              final ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+        Project project = manager.getProject();
+        IbatisManager ibatisManager = IbatisManager.getInstance();
+        DomManager domManager = DomManager.getDomManager(project);
+        Set<XmlFile> checkedFiles = new HashSet<XmlFile>();
+        List<DomFileElement<SqlMap>> sqlMapFiles = new ArrayList<DomFileElement<SqlMap>>();
+        for (Module module : ModuleManager.getInstance(project).getModules()) {
+            ProgressManager.getInstance().checkCanceled();
+            if (!IbatisUtil.isIbatisModule(module)) continue;
+            IbatisConfigurationModel configurationModel = ibatisManager.getConfigurationModel(module);
+            if (configurationModel == null) continue;
+            for (XmlFile xmlFile : configurationModel.getSqlMapFiles()) {
+                VirtualFile file = xmlFile.getVirtualFile();
+                if (file == null || !scope.contains(file) || !checkedFiles.add(xmlFile)) continue;
+                DomFileElement<SqlMap> fileElement = domManager.getFileElement(xmlFile, SqlMap.class);
+                if (fileElement != null) sqlMapFiles.add(fileElement);
+            }
+        }
+        final SqlMapInspection[] inspections = createInspections();
+        JobUtil.invokeConcurrentlyUnderProgress(sqlMapFiles, new Processor<DomFileElement<SqlMap>>() {
+            public boolean process(final DomFileElement<SqlMap> fileElement) {
+                ApplicationManager.getApplication().runReadAction(new Runnable() {
+                    public void run() {
+                        checkSqlMapFile(fileElement, inspections, manager, globalContext, problemDescriptionsProcessor);
+                    }
+                });
+                return true;
+            }
+        }, true);
+    }
+
+    /**
+     * run all inspections on sqlMap file and report the problems found
+     *
+     * @param fileElement                 sqlMap file element
+     * @param inspections                 inspections
+     * @param manager                     inspection manager
+     * @param globalContext               global inspection context
+     * @param problemDescriptionsProcessor problem processor
+     */
+    private static void checkSqlMapFile(DomFileElement<SqlMap> fileElement, SqlMapInspection[] inspections, InspectionManager manager,
+                                        GlobalInspectionContext globalContext, ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+        if (!fileElement.isValid()) return;
+        List<ProblemDescriptor> problems = new ArrayList<ProblemDescriptor>();
+        for (SqlMapInspection inspection : inspections) {
+            ProgressManager.getInstance().checkCanceled();
+            DomElementAnnotationHolderImpl holder = new DomElementAnnotationHolderImpl();
+            inspection.checkFileElement(fileElement, holder);
+            for (DomElementProblemDescriptor problem : holder) {
+                problems.addAll(DomElementsHighlightingUtil.createProblemDescriptors(manager, problem));
+            }
+        }
+        if (problems.isEmpty()) return;
+        synchronized (problemDescriptionsProcessor) {
+            RefEntity refEntity = globalContext.getRefManager().getReference(fileElement.getFile());
+            if (refEntity != null) {
+                problemDescriptionsProcessor.addProblemElement(refEntity, problems.toArray(new ProblemDescriptor[problems.size()]));
+            }
+        }
+    }
+}
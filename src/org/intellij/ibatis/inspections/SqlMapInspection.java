@@ -1,23 +1,48 @@
 package org.intellij.ibatis.inspections;
 
+import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.xml.DomElement;
 import com.intellij.util.xml.DomFileElement;
+import com.intellij.util.xml.DomManager;
 import com.intellij.util.xml.highlighting.BasicDomElementsInspection;
 import com.intellij.util.xml.highlighting.DomElementAnnotationHolder;
+import com.intellij.util.xml.highlighting.DomElementAnnotationHolderImpl;
+import com.intellij.util.xml.highlighting.DomElementProblemDescriptor;
+import org.intellij.ibatis.IbatisConfigurationModelFactory;
+import org.intellij.ibatis.IbatisManager;
 import org.intellij.ibatis.IbatisProjectComponent;
 import org.intellij.ibatis.IbatisSqlMapModel;
 import org.intellij.ibatis.dom.sqlMap.*;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.intellij.ibatis.util.IbatisBundle;
+import org.intellij.ibatis.util.IbatisUtil;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * sql map base inspection
+ * sql map base inspection, the problems of every element are cached on its tag and reported again without check
+ * until the file of tag, the included fragments, the referenced maps and type aliases or the configuration changed
  */
 public abstract class SqlMapInspection extends BasicDomElementsInspection<SqlMap> {
+    private static final Key<Map<String, CachedValue<List<DomElementProblemDescriptor>>>> PROBLEMS_KEY = Key.create("ibatis.inspection.problems");
+    private static final String[] CLASS_ATTRIBUTES = {"parameterClass", "resultClass", "class"};
+
     public SqlMapInspection() {
         super(SqlMap.class);
     }
@@ -26,35 +51,200 @@ public abstract class SqlMapInspection extends BasicDomElementsInspection<SqlMap
         return IbatisBundle.message("ibatis.sqlmap.inspection.group");
     }
 
-    @SuppressWarnings({"ConstantConditions"})
     public void checkFileElement(DomFileElement<SqlMap> fileElement, DomElementAnnotationHolder holder) {
-        Module module = ModuleUtil.findModuleForPsiElement(fileElement.getXmlElement());
+        checkSqlMap(fileElement.getRootElement(), holder);
+    }
+
+    /**
+     * get the sqlMap model which contains the file
+     *
+     * @param psiFile sqlMap file
+     * @return sqlMap model, null if the file is not in any model of its module
+     */
+    @Nullable public static IbatisSqlMapModel getSqlMapModel(PsiFile psiFile) {
+        Module module = ModuleUtil.findModuleForPsiElement(psiFile);
+        if (module == null || !(psiFile instanceof XmlFile)) return null;
         IbatisProjectComponent projectComponent = IbatisProjectComponent.getInstance(module.getProject());
-        List<IbatisSqlMapModel> models = projectComponent.getSqlMapModelFactory().getAllModels(module);
-        if (models.size() < 1) return;
-        IbatisSqlMapModel model = models.get(0);
-        SqlMap sqlMap = fileElement.getRootElement();
-        for (Select select : sqlMap.getSelects()) {
-            checkSelect(model, sqlMap, select, holder);
+        for (IbatisSqlMapModel model : projectComponent.getSqlMapModelFactory().getAllModels(module)) {
+            if (model.getConfigFiles().contains(psiFile)) return model;
         }
-        for (Update update : sqlMap.getUpdates()) {
-            checkUpdate(model, sqlMap, update, holder);
+        return null;
+    }
+
+    /**
+     * check all elements in sql map, the cached problems of unchanged elements are reported again without check
+     *
+     * @param sqlMap sqlMap
+     * @param holder dom element annotation holder
+     */
+    public void checkSqlMap(SqlMap sqlMap, DomElementAnnotationHolder holder) {
+        List<DomElement> elements = new ArrayList<DomElement>();
+        elements.addAll(sqlMap.getSelects());
+        elements.addAll(sqlMap.getUpdates());
+        elements.addAll(sqlMap.getDeletes());
+        elements.addAll(sqlMap.getInserts());
+        elements.addAll(sqlMap.getProcedures());
+        elements.addAll(sqlMap.getStatements());
+        elements.addAll(sqlMap.getResultMaps());
+        elements.addAll(sqlMap.getSqls());
+        ProgressManager progressManager = ProgressManager.getInstance();
+        for (DomElement element : elements) {
+            progressManager.checkCanceled();
+            XmlTag xmlTag = element.getXmlTag();
+            if (xmlTag == null) continue;
+            List<DomElementProblemDescriptor> problems = getProblems(xmlTag);
+            if (holder instanceof DomElementAnnotationHolderImpl) {
+                ((DomElementAnnotationHolderImpl) holder).addAll(problems);
+            } else {
+                for (DomElementProblemDescriptor problem : problems) {
+                    LocalQuickFix[] fixes = problem.getFixes();
+                    holder.createProblem(problem.getDomElement(), problem.getHighlightSeverity(), problem.getDescriptionTemplate(),
+                            fixes == null ? LocalQuickFix.EMPTY_ARRAY : fixes);
+                }
+            }
         }
-        for (Delete delete : sqlMap.getDeletes()) {
-            checkDelete(model, sqlMap, delete, holder);
+    }
+
+    /**
+     * get problems found by this inspection in element of tag, the problems are cached on tag
+     *
+     * @param xmlTag element tag
+     * @return problems
+     */
+    private List<DomElementProblemDescriptor> getProblems(XmlTag xmlTag) {
+        Map<String, CachedValue<List<DomElementProblemDescriptor>>> cache;
+        synchronized (PROBLEMS_KEY) {
+            cache = xmlTag.getUserData(PROBLEMS_KEY);
+            if (cache == null) {
+                cache = new ConcurrentHashMap<String, CachedValue<List<DomElementProblemDescriptor>>>();
+                xmlTag.putUserData(PROBLEMS_KEY, cache);
+            }
         }
-        for (Insert insert : sqlMap.getInserts()) {
-            checkInsert(model, sqlMap, insert, holder);
+        String name = getClass().getName();
+        CachedValue<List<DomElementProblemDescriptor>> cachedValue = cache.get(name);
+        if (cachedValue == null) {
+            cachedValue = createCachedProblems(xmlTag);
+            cache.put(name, cachedValue);
         }
-        for (Procedure procedure : sqlMap.getProcedures()) {
-            checkProcedure(model, sqlMap, procedure, holder);
+        List<DomElementProblemDescriptor> problems = cachedValue.getValue();
+        for (DomElementProblemDescriptor problem : problems) {
+            if (!problem.getDomElement().isValid()) {   //dom elements are recreated, check again
+                cachedValue = createCachedProblems(xmlTag);
+                cache.put(name, cachedValue);
+                return cachedValue.getValue();
+            }
         }
-        for (Statement statement : sqlMap.getStatements()) {
-            checkStatement(model, sqlMap, statement, holder);
+        return problems;
+    }
+
+    private CachedValue<List<DomElementProblemDescriptor>> createCachedProblems(final XmlTag xmlTag) {
+        return CachedValuesManager.getManager(xmlTag.getProject()).createCachedValue(new CachedValueProvider<List<DomElementProblemDescriptor>>() {
+            public Result<List<DomElementProblemDescriptor>> compute() {
+                List<DomElementProblemDescriptor> problems = new ArrayList<DomElementProblemDescriptor>();
+                DomElement element = xmlTag.isValid() ? DomManager.getDomManager(xmlTag.getProject()).getDomElement(xmlTag) : null;
+                SqlMap sqlMap = element == null ? null : element.getParentOfType(SqlMap.class, true);
+                IbatisSqlMapModel model = sqlMap == null ? null : getSqlMapModel(xmlTag.getContainingFile());
+                if (model != null) {
+                    DomElementAnnotationHolderImpl holder = new DomElementAnnotationHolderImpl();
+                    checkElement(model, sqlMap, element, holder);
+                    problems.addAll(holder);
+                }
+                return Result.create(problems, getDependencies(xmlTag));
+            }
+        }, false);
+    }
+
+    private void checkElement(IbatisSqlMapModel model, SqlMap sqlMap, DomElement element, DomElementAnnotationHolder holder) {
+        if (element instanceof Select) {
+            checkSelect(model, sqlMap, (Select) element, holder);
+        } else if (element instanceof Update) {
+            checkUpdate(model, sqlMap, (Update) element, holder);
+        } else if (element instanceof Delete) {
+            checkDelete(model, sqlMap, (Delete) element, holder);
+        } else if (element instanceof Insert) {
+            checkInsert(model, sqlMap, (Insert) element, holder);
+        } else if (element instanceof Procedure) {
+            checkProcedure(model, sqlMap, (Procedure) element, holder);
+        } else if (element instanceof Statement) {
+            checkStatement(model, sqlMap, (Statement) element, holder);
+        } else if (element instanceof ResultMap) {
+            checkResultMap(model, sqlMap, (ResultMap) element, holder);
+        } else if (element instanceof Sql) {
+            checkSql(model, sqlMap, (Sql) element, holder);
         }
-        for (ResultMap resultMap : sqlMap.getResultMaps()) {
-            checkResultMap(model, sqlMap, resultMap, holder);
+    }
+
+    /**
+     * get the objects which problems of element depend on: the file of tag and the included fragments, the files of
+     * referenced resultMap, parameterMap and type aliases, the configuration, and Java structure if any class is used
+     *
+     * @param xmlTag element tag
+     * @return dependencies
+     */
+    private static Object[] getDependencies(XmlTag xmlTag) {
+        Set<Object> dependencies = new HashSet<Object>();
+        if (!xmlTag.isValid()) return new Object[]{PsiModificationTracker.MODIFICATION_COUNT};
+        dependencies.add(xmlTag.getContainingFile());
+        Collections.addAll(dependencies, IbatisUtil.getExpansionDependencies(xmlTag));
+        Module module = ModuleUtil.findModuleForPsiElement(xmlTag);
+        if (module != null) {
+            IbatisConfigurationModelFactory modelFactory = IbatisProjectComponent.getInstance(module.getProject()).getConfigurationModelFactory();
+            dependencies.add(modelFactory.getConfigurationFilesTracker());
+            dependencies.add(ProjectRootManager.getInstance(module.getProject()));
+            Set<XmlFile> configFiles = modelFactory.getAllSqlMapConfigurationFile(module);
+            if (configFiles != null) dependencies.addAll(configFiles);
+        }
+        boolean usesClasses = addTypeAliases(dependencies, xmlTag);
+        usesClasses |= addReferencedTag(dependencies, xmlTag, "resultMap", SqlMapElementKind.RESULT_MAP);
+        usesClasses |= addReferencedTag(dependencies, xmlTag, "parameterMap", SqlMapElementKind.PARAMETER_MAP);
+        if (xmlTag.getName().equals("resultMap")) {
+            usesClasses |= addReferencedTag(dependencies, xmlTag, "extends", SqlMapElementKind.RESULT_MAP);
+        }
+        if (usesClasses || IbatisUtil.getAllTextForXmlTag(xmlTag).contains("javaType")) {
+            dependencies.add(PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+        }
+        return dependencies.toArray();
+    }
+
+    /**
+     * add the file of referenced map and the type aliases used by it
+     *
+     * @return true if the referenced map uses a class
+     */
+    private static boolean addReferencedTag(Set<Object> dependencies, XmlTag xmlTag, String attributeName, SqlMapElementKind kind) {
+        String id = xmlTag.getAttributeValue(attributeName);
+        if (id == null) return false;
+        DomElement element = IbatisManager.getInstance().findSqlMapElement(xmlTag, id, kind);
+        XmlTag referencedTag = element == null ? null : element.getXmlTag();
+        if (referencedTag == null) {
+            dependencies.add(PsiModificationTracker.MODIFICATION_COUNT);   //map may be declared later
+            return false;
         }
+        dependencies.add(referencedTag.getContainingFile());
+        return addTypeAliases(dependencies, referencedTag);
+    }
+
+    /**
+     * add the files declaring type aliases used as class of element, so changing an alias to another class drops the problems
+     *
+     * @return true if element uses a class
+     */
+    private static boolean addTypeAliases(Set<Object> dependencies, XmlTag xmlTag) {
+        Map<String, XmlTag> typeAliases = null;
+        boolean usesClasses = false;
+        for (String attributeName : CLASS_ATTRIBUTES) {
+            String className = xmlTag.getAttributeValue(attributeName);
+            if (className == null) continue;
+            usesClasses = true;
+            if (typeAliases == null) typeAliases = IbatisManager.getInstance().getAllTypeAlias2(xmlTag);
+            XmlTag aliasTag = typeAliases.get(className);
+            if (aliasTag != null) {
+                dependencies.add(aliasTag.getContainingFile());
+            } else if (className.indexOf('.') == -1) {
+                dependencies.add(PsiModificationTracker.MODIFICATION_COUNT);   //alias may be declared later
+            }
+        }
+        return usesClasses;
     }
 
     /**
@@ -68,6 +258,17 @@ public abstract class SqlMapInspection extends BasicDomElementsInspection<SqlMap
     protected void checkResultMap(IbatisSqlMapModel sqlMapModel, SqlMap sqlMap, ResultMap resultMap, final DomElementAnnotationHolder holder) {
     }
 
+    /**
+     * check sql fragment
+     *
+     * @param sqlMapModel sqlMapModel
+     * @param sqlMap      current sqlMap
+     * @param sql         sql fragment
+     * @param holder      dom element annotation holder
+     */
+    protected void checkSql(IbatisSqlMapModel sqlMapModel, SqlMap sqlMap, Sql sql, final DomElementAnnotationHolder holder) {
+    }
+
     /**
      * check select bean
      *
@@ -1,24 +1,23 @@
 package org.intellij.ibatis.inspections;
 
 import com.intellij.lang.annotation.HighlightSeverity;
-import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiElement;
-import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlTag;
-import com.intellij.psi.xml.XmlText;
 import com.intellij.util.xml.DomElement;
 import com.intellij.util.xml.highlighting.DomElementAnnotationHolder;
 import org.intellij.ibatis.IbatisSqlMapModel;
 import org.intellij.ibatis.dom.sqlMap.*;
-import org.intellij.ibatis.provider.FieldAccessMethodReferenceProvider;
+import org.intellij.ibatis.model.InlineParameter;
 import org.intellij.ibatis.provider.IbatisClassShortcutsReferenceProvider;
+import org.intellij.ibatis.util.BeanPropertyTable;
 import org.intellij.ibatis.util.IbatisBundle;
+import org.intellij.ibatis.util.IbatisUtil;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -105,17 +104,7 @@ public class SymbolInSQLInspection extends SqlMapInspection {
 
     protected void checkSymbol(IbatisSqlMapModel sqlMapModel, SqlMap sqlMap, DomElement domElement, DomElementAnnotationHolder holder, PsiClass parameterClass) {
         if (parameterClass == null) return;
-        Set<String> inlineParameters = new HashSet<String>();
-        String[] words = getAllTextInTag(domElement.getXmlTag()).trim().split("\\s+");
-        if (words != null) {
-            for (String word : words) {
-                if (word.startsWith("#") && word.endsWith("#"))  // symbol
-                {
-                    String parameterName = getParameterRealName(word);
-                    inlineParameters.add(parameterName);
-                }
-            }
-        }
+        Set<String> inlineParameters = getAllParameterInTag(domElement.getXmlTag());
         //domain class validation
         if (IbatisClassShortcutsReferenceProvider.isDomain(parameterClass.getName())) {
             for (String inlineParameter : inlineParameters) {
@@ -134,12 +123,7 @@ public class SymbolInSQLInspection extends SqlMapInspection {
      * @return contained mark
      */
     private boolean isFieldOfPsiClass(PsiClass psiClass, String[] path) {
-        PsiClass referenceClass = psiClass;
-        for (String item : path) {
-            referenceClass = FieldAccessMethodReferenceProvider.findGetterMethodReturnType(referenceClass, "get" + StringUtil.capitalize(item));
-            if (referenceClass == null) return false;
-        }
-        return true;
+        return BeanPropertyTable.resolveClass(psiClass, path) != null;
     }
 
     /**
@@ -148,30 +132,8 @@ public class SymbolInSQLInspection extends SqlMapInspection {
      * @param xmlTag xml tag
      * @return xml text
      */
-    @SuppressWarnings({"ConstantConditions"})
     public static String getAllTextInTag(XmlTag xmlTag) {
-        StringBuilder sql = new StringBuilder();
-        PsiElement[] children = xmlTag.getChildren();
-        for (PsiElement child : children) {
-            if (child instanceof XmlTag) {
-                XmlTag tag = (XmlTag) child;
-                if (tag.getName().equals("include")) {   // include element
-                    XmlAttribute refid = tag.getAttribute("refid");
-                    if (refid != null && StringUtil.isNotEmpty(refid.getText())) {
-                        PsiElement psiElement = refid.getValueElement().getReference().resolve();
-                        if (psiElement instanceof XmlTag) {
-                            XmlTag target = (XmlTag) psiElement;
-                            sql.append(" ").append(target.getText());
-                        }
-                    }
-                } else {
-                    sql.append(getAllTextInTag(tag));
-                }
-            } else if (child instanceof XmlText) {
-                sql.append(" ").append(((XmlText) child).getValue());
-            }
-        }
-        return sql.toString();
+        return IbatisUtil.getAllTextForXmlTag(xmlTag);
     }
 
     /**
@@ -181,37 +143,20 @@ public class SymbolInSQLInspection extends SqlMapInspection {
      * @return parameter name list
      */
     public static Set<String> getAllParameterInTag(XmlTag xmlTag) {
-        Set<String> inlineParameters = new HashSet<String>();
-        String[] words = getAllTextInTag(xmlTag).trim().split("\\s+");
-        if (words != null) {
-            for (String word : words) {
-                if (word.startsWith("#") && word.endsWith("#"))  // symbol
-                {
-                    String parameterName = getParameterRealName(word);
-                    inlineParameters.add(parameterName);
-                }
-            }
-        }
-        return inlineParameters;
+        return getParameterNames(IbatisUtil.getInlineParameters(xmlTag));
     }
 
     /**
-     * get parameter real name
+     * get names of #prop# parameters, $prop$ substitutions are skipped
      *
-     * @param word word
-     * @return parameter name
+     * @param parameters in line parameters
+     * @return parameter name list
      */
-    private static String getParameterRealName(String word) {
-        String parameterName = word.replaceAll("#", "");
-        if (parameterName.contains(":")) {   //parameter:jdbctype:value
-            parameterName = parameterName.substring(0, parameterName.indexOf(":"));
+    public static Set<String> getParameterNames(List<InlineParameter> parameters) {
+        Set<String> inlineParameters = new LinkedHashSet<String>();
+        for (InlineParameter inlineParameter : parameters) {
+            if (!inlineParameter.isSubstitution()) inlineParameters.add(inlineParameter.getName());
         }
-        if (parameterName.contains(",")) {   //parameter, handler
-            parameterName = parameterName.substring(0, parameterName.indexOf(","));
-        }
-        if (parameterName.endsWith("[]")) {
-            parameterName = parameterName.substring(0, parameterName.length() - 2);
-        }
-        return parameterName;
+        return inlineParameters;
     }
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package org.intellij.ibatis.inspections;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeHighlighting.HighlightDisplayLevel;
+import com.intellij.codeInspection.*;
+import com.intellij.codeInspection.reference.RefEntity;
+import com.intellij.openapi.application.Result;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlAttribute;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.xml.DomElement;
+import org.intellij.ibatis.IbatisConfigurationModel;
+import org.intellij.ibatis.IbatisManager;
+import org.intellij.ibatis.index.SqlMapReferenceIndex;
+import org.intellij.ibatis.model.SqlMapElementKind;
+import org.intellij.ibatis.util.IbatisBundle;
+import org.intellij.ibatis.util.IbatisUtil;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * find sql fragments, resultMaps and parameterMaps which are not referenced in SQL Map files. the names come from
+ * symbol table and the usages are checked in reference index only. statements are not checked, their ids may be
+ * kept in constants, concatenated or passed through DAO wrappers, so a missing call can't be told from index.
+ *
+ * @author Jacky
+ */
+public class UnusedSqlMapElementInspection extends GlobalInspectionTool {
+    private static final SqlMapElementKind[] CHECKED_KINDS = {SqlMapElementKind.SQL, SqlMapElementKind.RESULT_MAP, SqlMapElementKind.PARAMETER_MAP};
+
+    @Nls @NotNull public String getGroupDisplayName() {
+        return IbatisBundle.message("ibatis.sqlmap.inspection.group");
+    }
+
+    @Nls @NotNull public String getDisplayName() {
+        return IbatisBundle.message("ibatis.sqlmap.inspection.unusedelement.name");
+    }
+
+    @NonNls @NotNull public String getShortName() {
+        return IbatisBundle.message("ibatis.sqlmap.inspection.unusedelement.id");
+    }
+
+    @NotNull public HighlightDisplayLevel getDefaultLevel() {
+        return HighlightDisplayLevel.WARNING;
+    }
+
+    public boolean isGraphNeeded() {
+        return false;
+    }
+
+    public void runInspection(AnalysisScope scope, InspectionManager manager, GlobalInspectionContext globalContext, ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+        Project project = manager.getProject();
+        GlobalSearchScope searchScope = GlobalSearchScope.allScope(project);
+        IbatisManager ibatisManager = IbatisManager.getInstance();
+        for (Module module : ModuleManager.getInstance(project).getModules()) {
+            if (!IbatisUtil.isIbatisModule(module)) continue;
+            IbatisConfigurationModel configurationModel = ibatisManager.getConfigurationModel(module);
+            if (configurationModel == null || configurationModel.getConfigFiles().isEmpty()) continue;
+            XmlFile context = configurationModel.getConfigFiles().iterator().next();
+            for (SqlMapElementKind kind : CHECKED_KINDS) {
+                for (String name : ibatisManager.getSqlMapElementNames(context, "", kind)) {
+                    ProgressManager.getInstance().checkCanceled();
+                    if (isUsed(name, searchScope)) continue;
+                    DomElement element = ibatisManager.findSqlMapElement(context, name, kind);
+                    XmlTag xmlTag = element == null ? null : element.getXmlTag();
+                    if (xmlTag == null) continue;
+                    String id = xmlTag.getAttributeValue("id");
+                    if (id != null && !id.equals(name) && isUsedInNamespace(id, xmlTag, searchScope)) continue;
+                    VirtualFile file = xmlTag.getContainingFile().getVirtualFile();
+                    if (file == null || !scope.contains(file)) continue;
+                    RefEntity refEntity = globalContext.getRefManager().getReference(xmlTag.getContainingFile());
+                    if (refEntity == null) continue;
+                    XmlAttribute idAttribute = xmlTag.getAttribute("id");
+                    PsiElement anchor = idAttribute != null && idAttribute.getValueElement() != null ? idAttribute.getValueElement() : xmlTag;
+                    problemDescriptionsProcessor.addProblemElement(refEntity, manager.createProblemDescriptor(anchor,
+                            IbatisBundle.message("ibatis.sqlmap.inspection.unusedelement.error", xmlTag.getName(), name),
+                            new LocalQuickFix[]{new RemoveUnusedElementQuickFix()}, ProblemHighlightType.LIKE_UNUSED_SYMBOL));
+                }
+            }
+        }
+    }
+
+    /**
+     * validate the element is referenced in SQL Map files
+     *
+     * @param name        element name
+     * @param searchScope search scope
+     * @return used mark
+     */
+    private static boolean isUsed(String name, GlobalSearchScope searchScope) {
+        return !FileBasedIndex.getInstance().getContainingFiles(SqlMapReferenceIndex.NAME, name, searchScope).isEmpty();
+    }
+
+    /**
+     * validate the element is referenced by its id without namespace, which is only resolved in SQL Map files of same namespace
+     *
+     * @param id          element id without namespace
+     * @param xmlTag      element tag
+     * @param searchScope search scope
+     * @return used mark
+     */
+    private static boolean isUsedInNamespace(String id, XmlTag xmlTag, GlobalSearchScope searchScope) {
+        if (!(xmlTag.getContainingFile() instanceof XmlFile)) return false;
+        String namespace = IbatisUtil.getNamespace((XmlFile) xmlTag.getContainingFile());
+        PsiManager psiManager = xmlTag.getManager();
+        for (VirtualFile file : FileBasedIndex.getInstance().getContainingFiles(SqlMapReferenceIndex.NAME, id, searchScope)) {
+            PsiFile psiFile = psiManager.findFile(file);
+            if (psiFile instanceof XmlFile && namespace.equals(IbatisUtil.getNamespace((XmlFile) psiFile))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * remove the unused sql fragment, resultMap or parameterMap, select all problems in inspection view to remove them in one go
+     */
+    public static class RemoveUnusedElementQuickFix implements LocalQuickFix {
+        @NotNull public String getName() {
+            return IbatisBundle.message("ibatis.sqlmap.quickfix.removeunused.name");
+        }
+
+        @NotNull public String getFamilyName() {
+            return IbatisBundle.message("ibatis.sqlmap.quickfix.family");
+        }
+
+        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor problemDescriptor) {
+            final XmlTag xmlTag = PsiTreeUtil.getParentOfType(problemDescriptor.getPsiElement(), XmlTag.class, false);
+            if (xmlTag == null || !xmlTag.isValid()) return;
+            new WriteCommandAction(project) {
+                protected void run(final Result result) throws Throwable {
+                    xmlTag.delete();
+                }
+            }.execute();
+        }
+    }
+}
@@ -72,7 +72,7 @@ public class GenerateStatementXmlCodeAction extends PsiIntentionBase {
             }
             IbatisConfigurationModel model = IbatisManager.getInstance().getConfigurationModel(ModuleUtil.findModuleForPsiElement(element));
             if (model != null) {
-                boolean isSpaceUsed = model.isUseStatementNamespaces();
+                boolean isSpaceUsed = IbatisUtil.isUseStatementNamespaces(ModuleUtil.findModuleForPsiElement(element));
                 XmlFile destinationSQLMapFile = null;  //if destination file not found, the last one will be used
                 Set<XmlFile> sqlMapFiles = model.getSqlMapFiles();
                 for (XmlFile sqlMapFile : sqlMapFiles) {
@@ -82,7 +82,7 @@ public class GenerateStatementXmlCodeAction extends PsiIntentionBase {
                         XmlTag rootTag = document.getRootTag();
                         if (rootTag != null) {
                             destinationSQLMapFile = sqlMapFile;
-                            String nameSpace = rootTag.getAttributeValue("namespace");
+                            String nameSpace = IbatisUtil.getNamespace(sqlMapFile);
                             if (isMatchedSQLMapFile(fileName, nameSpace, statementId)) {
                                 break;
                             }
@@ -230,9 +230,8 @@ public class GenerateStatementXmlCodeAction extends PsiIntentionBase {
             if (parent instanceof PsiMethodCallExpression) {
                 //method name validation simply
                 PsiReferenceExpression methodExpression = ((PsiMethodCallExpression) parent).getMethodExpression();
-                String[] path = methodExpression.getText().split("\\.");
-                String methodName = path[path.length - 1].trim().toLowerCase();
-                if (methodName.matches(SqlClientElementFilter.operationPattern)) {
+                String methodName = methodExpression.getReferenceName();
+                if (methodName != null && SqlClientElementFilter.isSqlClientOperation(methodName.toLowerCase())) {
                     PsiReference[] references = expression.getReferences();
                     for (PsiReference reference : references) {
                         if (reference instanceof StatementIdReferenceProvider.StatementIdReference) {
@@ -0,0 +1,81 @@
+package org.intellij.ibatis.model;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiType;
+import org.intellij.ibatis.provider.IbatisClassShortcutsReferenceProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * bean property of class, declared by getter or setter method
+ *
+ * @author Jacky
+ */
+public class BeanProperty {
+    private final String name;
+    private PsiMethod getter;
+    private PsiMethod setter;
+    private volatile PsiClass propertyClass;
+    private volatile boolean classResolved;
+
+    public BeanProperty(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * get property name, such as "firstName" for getFirstName()
+     *
+     * @return property name
+     */
+    @NotNull public String getName() {
+        return name;
+    }
+
+    /**
+     * get getter method, getXxx() is preferred to isXxx()
+     *
+     * @return getter method, null if write only
+     */
+    @Nullable public PsiMethod getGetter() {
+        return getter;
+    }
+
+    public void setGetter(PsiMethod getter) {
+        this.getter = getter;
+    }
+
+    @Nullable public PsiMethod getSetter() {
+        return setter;
+    }
+
+    public void setSetter(PsiMethod setter) {
+        this.setter = setter;
+    }
+
+    /**
+     * get property type, the return type of getter or the parameter type of setter
+     *
+     * @return property type
+     */
+    @Nullable public PsiType getType() {
+        if (getter != null) return getter.getReturnType();
+        return setter == null ? null : setter.getParameterList().getParameters()[0].getType();
+    }
+
+    /**
+     * get class of getter return type, resolved at first time
+     *
+     * @return property class, null if no getter or the type can't be resolved
+     */
+    @Nullable public PsiClass getPropertyClass() {
+        if (!classResolved) {
+            PsiType returnType = getter == null ? null : getter.getReturnType();
+            if (returnType != null) {
+                propertyClass = IbatisClassShortcutsReferenceProvider.getPsiClass(getter, returnType.getCanonicalText());
+            }
+            classResolved = true;
+        }
+        return propertyClass;
+    }
+}
@@ -1,11 +1,16 @@
 package org.intellij.ibatis.model;
 
 /**
- * in line parameter in SQL
+ * in line parameter in SQL, #prop# or $prop$
  */
 public class InlineParameter {
     private String name;
     private String jdbcType;
+    private String javaType;
+    private String nullValue;
+    private int offset;
+    private int length;
+    private boolean substitution;
 
     public String getName() {
         return name;
@@ -22,4 +27,59 @@ public class InlineParameter {
     public void setJdbcType(String jdbcType) {
         this.jdbcType = jdbcType;
     }
+
+    public String getJavaType() {
+        return javaType;
+    }
+
+    public void setJavaType(String javaType) {
+        this.javaType = javaType;
+    }
+
+    public String getNullValue() {
+        return nullValue;
+    }
+
+    public void setNullValue(String nullValue) {
+        this.nullValue = nullValue;
+    }
+
+    /**
+     * get offset of opening mark in SQL text of statement
+     *
+     * @return offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * get length of parameter including the opening and closing mark
+     *
+     * @return length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    /**
+     * validate the parameter is $prop$ substitution
+     *
+     * @return substitution mark
+     */
+    public boolean isSubstitution() {
+        return substitution;
+    }
+
+    public void setSubstitution(boolean substitution) {
+        this.substitution = substitution;
+    }
 }
@@ -0,0 +1,59 @@
+package org.intellij.ibatis.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * top level select items and FROM tables of query
+ *
+ * @author Jacky
+ */
+public class SelectList {
+    private final Map<String, String> columns = new LinkedHashMap<String, String>();
+    private final List<String> tables = new ArrayList<String>();
+    private boolean wildcard;
+
+    /**
+     * get selected columns
+     *
+     * @return upper case column label -> select expression
+     */
+    @NotNull public Map<String, String> getColumns() {
+        return Collections.unmodifiableMap(columns);
+    }
+
+    public void addColumn(@NotNull String label, @NotNull String expression) {
+        columns.put(label.toUpperCase(), expression);
+    }
+
+    /**
+     * get tables in FROM clause, joined tables included
+     *
+     * @return table names as they are written
+     */
+    @NotNull public List<String> getTables() {
+        return Collections.unmodifiableList(tables);
+    }
+
+    public void addTable(@NotNull String table) {
+        tables.add(table);
+    }
+
+    /**
+     * validate "*" or "t.*" is selected, the columns are unknown then
+     *
+     * @return wildcard mark
+     */
+    public boolean isWildcard() {
+        return wildcard;
+    }
+
+    public void setWildcard(boolean wildcard) {
+        this.wildcard = wildcard;
+    }
+}
@@ -0,0 +1,81 @@
+package org.intellij.ibatis.model;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * kind of the id-carrying elements declared in SQL Map and configuration file
+ *
+ * @author Jacky
+ */
+public enum SqlMapElementKind {
+    SELECT("select"),
+    INSERT("insert"),
+    UPDATE("update"),
+    DELETE("delete"),
+    STATEMENT("statement"),
+    PROCEDURE("procedure"),
+    SQL("sql"),
+    RESULT_MAP("resultMap"),
+    PARAMETER_MAP("parameterMap"),
+    CACHE_MODEL("cacheModel"),
+    TYPE_ALIAS("typeAlias"),
+    TYPE_HANDLER("typeHandler");
+
+    private final String tagName;
+
+    SqlMapElementKind(String tagName) {
+        this.tagName = tagName;
+    }
+
+    /**
+     * get xml tag name for the kind
+     *
+     * @return tag name
+     */
+    public String getTagName() {
+        return tagName;
+    }
+
+    /**
+     * get the attribute which names the element
+     *
+     * @return attribute name
+     */
+    public String getIdAttribute() {
+        if (this == TYPE_ALIAS) return "alias";
+        if (this == TYPE_HANDLER) return "javaType";
+        return "id";
+    }
+
+    /**
+     * validate the element name is prefixed with namespace when useStatementNamespaces enabled
+     *
+     * @return namespace mark
+     */
+    public boolean isNamespaced() {
+        return this != TYPE_ALIAS && this != TYPE_HANDLER;
+    }
+
+    /**
+     * validate the element is statement which can be executed by SqlMapClient
+     *
+     * @return statement mark
+     */
+    public boolean isStatement() {
+        return ordinal() <= PROCEDURE.ordinal();
+    }
+
+    /**
+     * find kind according to tag name
+     *
+     * @param tagName xml tag name
+     * @return kind, null if the tag is not an id-carrying element
+     */
+    @Nullable
+    public static SqlMapElementKind fromTagName(String tagName) {
+        for (SqlMapElementKind kind : values()) {
+            if (kind.tagName.equals(tagName)) return kind;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+package org.intellij.ibatis.model;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileWithId;
+import com.intellij.openapi.vfs.newvfs.persistent.PersistentFS;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.xml.DomElement;
+import com.intellij.util.xml.DomManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * compact entry of element declared in SQL Map or configuration file, kept in long-lived lookup tables instead of
+ * dom element, so the PSI of the file isn't held. the xml tag is located only when it is requested.
+ *
+ * @author Jacky
+ */
+public class SqlMapSymbol {
+    private final String name;
+    private final SqlMapElementKind kind;
+    private final int fileId;
+    private final int offset;
+    private volatile SmartPsiElementPointer<XmlTag> pointer;
+
+    public SqlMapSymbol(@NotNull String name, @NotNull SqlMapElementKind kind, @NotNull XmlTag xmlTag) {
+        this.name = name;
+        this.kind = kind;
+        this.offset = xmlTag.getTextRange().getStartOffset();
+        VirtualFile file = xmlTag.getContainingFile().getVirtualFile();
+        if (file instanceof VirtualFileWithId) {
+            this.fileId = ((VirtualFileWithId) file).getId();
+        } else {    //file not in VFS, keep pointer instead
+            this.fileId = -1;
+            this.pointer = SmartPointerManager.getInstance(xmlTag.getProject()).createSmartPsiElementPointer(xmlTag);
+        }
+    }
+
+    /**
+     * get unique name, namespace included if useStatementNamespaces enabled
+     *
+     * @return unique name
+     */
+    @NotNull public String getName() {
+        return name;
+    }
+
+    @NotNull public SqlMapElementKind getKind() {
+        return kind;
+    }
+
+    public int getFileId() {
+        return fileId;
+    }
+
+    /**
+     * get offset of the element's start tag in file
+     *
+     * @return text offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * get xml tag of element, the tag is located by file id and offset at first time
+     *
+     * @param project project
+     * @return xml tag, null if the file is changed or removed
+     */
+    @Nullable public XmlTag getXmlTag(@NotNull Project project) {
+        SmartPsiElementPointer<XmlTag> tagPointer = pointer;
+        if (tagPointer != null) {
+            XmlTag xmlTag = tagPointer.getElement();
+            if (xmlTag != null && xmlTag.isValid() && isDeclaredBy(xmlTag)) return xmlTag;
+            if (fileId == -1) return null;
+        }
+        VirtualFile file = PersistentFS.getInstance().findFileById(fileId);
+        if (file == null || !file.isValid()) return null;
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        if (psiFile == null) return null;
+        XmlTag xmlTag = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offset + 1), XmlTag.class);
+        if (xmlTag == null || !isDeclaredBy(xmlTag)) return null;
+        pointer = SmartPointerManager.getInstance(project).createSmartPsiElementPointer(xmlTag);
+        return xmlTag;
+    }
+
+    /**
+     * validate the tag is still the declaration of symbol, the offset may point to another tag after an edit above it
+     *
+     * @param xmlTag xml tag
+     * @return declaration mark
+     */
+    private boolean isDeclaredBy(XmlTag xmlTag) {
+        if (!kind.getTagName().equals(xmlTag.getName())) return false;
+        String id = xmlTag.getAttributeValue(kind.getIdAttribute());
+        if (id == null || id.length() == 0) return false;
+        if (name.equals(id)) return true;
+        int prefixLength = name.length() - id.length();   //namespace prefix
+        return kind.isNamespaced() && prefixLength > 1 && name.endsWith(id) && name.charAt(prefixLength - 1) == '.';
+    }
+
+    /**
+     * get dom element of element
+     *
+     * @param project project
+     * @return dom element, null if the file is changed or removed
+     */
+    @Nullable public DomElement getDomElement(@NotNull Project project) {
+        XmlTag xmlTag = getXmlTag(project);
+        return xmlTag == null ? null : DomManager.getDomManager(project).getDomElement(xmlTag);
+    }
+}
@@ -3,12 +3,12 @@ package org.intellij.ibatis.provider;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.xml.XmlAttributeValue;
+import com.intellij.util.xml.DomElement;
 import org.intellij.ibatis.IbatisManager;
-import org.intellij.ibatis.dom.sqlMap.CacheModel;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -28,9 +28,7 @@ public class CacheModelReferenceProvider extends BaseReferenceProvider {
             @Nullable
             public PsiElement resolve() {
                 String cacheModelId = getReferenceId(getElement());
-                IbatisManager manager = IbatisManager.getInstance();
-                Map<String, CacheModel> allResultMap = manager.getAllCacheModel(getElement());
-                CacheModel cacheModel = allResultMap.get(cacheModelId);
+                DomElement cacheModel = IbatisManager.getInstance().findSqlMapElement(getElement(), cacheModelId, SqlMapElementKind.CACHE_MODEL);
                 return cacheModel == null ? null : cacheModel.getXmlTag();
             }
 
@@ -4,18 +4,15 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.xml.XmlAttributeValue;
 import com.intellij.codeInsight.lookup.LookupValueFactory;
+import com.intellij.util.xml.DomElement;
 import org.intellij.ibatis.IbatisManager;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.intellij.ibatis.util.IbatisConstants;
-import org.intellij.ibatis.dom.sqlMap.Delete;
-import org.intellij.ibatis.dom.sqlMap.Insert;
-import org.intellij.ibatis.dom.sqlMap.Procedure;
-import org.intellij.ibatis.dom.sqlMap.Update;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -33,27 +30,9 @@ public class CacheModelStatementReferenceProvider extends BaseReferenceProvider
 
             @Nullable public PsiElement resolve() {
             String statementId = getReferenceId(getElement());
-              Map<String, Delete> allDelete = IbatisManager.getInstance().getAllDelete(getElement());
-              Delete delete = allDelete.get(statementId);
-              if(delete != null) {
-                return delete.getXmlTag();
-              }
-              Map<String, Update> allUpdate = IbatisManager.getInstance().getAllUpdate(getElement());
-              Update update = allUpdate.get(statementId);
-              if(update != null) {
-                return update.getXmlTag();
-              }
-              Map<String, Insert> allInsert = IbatisManager.getInstance().getAllInsert(getElement());
-              Insert insert = allInsert.get(statementId);
-              if(insert != null) {
-                return insert.getXmlTag();
-              }
-              Map<String, Procedure> allProcedure = IbatisManager.getInstance().getAllProcedure(getElement());
-              Procedure procedure = allProcedure.get(statementId);
-              if(procedure != null) {
-                return procedure.getXmlTag();
-              }
-                return null;
+              DomElement statement = IbatisManager.getInstance().findSqlMapElement(getElement(), statementId,
+                      SqlMapElementKind.DELETE, SqlMapElementKind.UPDATE, SqlMapElementKind.INSERT, SqlMapElementKind.PROCEDURE);
+              return statement == null ? null : statement.getXmlTag();
             }
 
             public Object[] getVariants() {
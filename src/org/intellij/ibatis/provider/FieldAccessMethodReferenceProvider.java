@@ -8,6 +8,10 @@ import com.intellij.psi.xml.XmlAttributeValue;
 import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.IncorrectOperationException;
 import org.intellij.ibatis.IbatisManager;
+import org.intellij.ibatis.dom.sqlMap.ParameterMap;
+import org.intellij.ibatis.model.BeanProperty;
+import org.intellij.ibatis.model.SqlMapElementKind;
+import org.intellij.ibatis.util.BeanPropertyTable;
 import org.intellij.ibatis.util.IbatisConstants;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -37,39 +41,12 @@ public class FieldAccessMethodReferenceProvider extends BaseReferenceProvider {
             if (!IbatisClassShortcutsReferenceProvider.isDomain(psiClass.getName())) {    //none domain class, validate is not necessary, such as hashmap
               return null;
             }
-            PsiClass referencedClass = psiClass;
-            String[] referencePath = getCanonicalText().split("\\.");
+            BeanProperty property = BeanPropertyTable.resolve(psiClass, getCanonicalText().split("\\."));
+            if (property == null) return null;
             if (xmlTag.getName().equals("result") || xmlTag.getName().equals("resultMap")) {
-              String methodName = "set" + StringUtil.capitalize(referencePath[referencePath.length - 1]);
-              for (int i = 0; i < referencePath.length - 1; i++) {
-                referencedClass = findGetterMethodReturnType(referencedClass, "get" + StringUtil.capitalize(referencePath[i]));
-                if (referencedClass == null) break;
-              }
-              if (referencedClass != null) {
-                PsiMethod[] methods = referencedClass.findMethodsByName(methodName, true);
-                if (methods.length > 0) return methods[0];
-              }
-            } else {
-              String methodName = "get" + StringUtil.capitalize(referencePath[referencePath.length - 1]);
-              for (int i = 0; i < referencePath.length - 1; i++) {
-                referencedClass = findGetterMethodReturnType(referencedClass, "get" + StringUtil.capitalize(referencePath[i]));
-                if (referencedClass == null) break;
-              }
-              if (referencedClass != null) {
-                PsiMethod[] methods = referencedClass.findMethodsByName(methodName, true);
-                if (methods.length > 0) return methods[0];
-              }
-              methodName = "is" + StringUtil.capitalize(referencePath[referencePath.length - 1]);
-              for (int i = 0; i < referencePath.length - 1; i++) {
-                referencedClass = findGetterMethodReturnType(referencedClass, "get" + StringUtil.capitalize(referencePath[i]));
-                if (referencedClass == null) break;
-              }
-              if (referencedClass != null) {
-                PsiMethod[] methods = referencedClass.findMethodsByName(methodName, true);
-                if (methods.length > 0) return methods[0];
-              }
+              return property.getSetter();
             }
-            return null;
+            return property.getGetter();
           }
 
           public PsiElement handleElementRename(String newElementName) throws IncorrectOperationException {
@@ -125,22 +102,9 @@ public class FieldAccessMethodReferenceProvider extends BaseReferenceProvider {
             if ("Map".equals(psiClass.getName())) {
               return null;
             }
-            PsiClass referencedClass = psiClass;
             String referencePath = getCanonicalText().replace("IntellijIdeaRulezzz ", "");
-            String methodName = "get" + StringUtil.capitalize(referencePath);
-            if (referencePath.contains(".")) {
-              String fieldName = referencePath.substring(0, referencePath.lastIndexOf('.'));
-              methodName = "get" + StringUtil.capitalize(referencePath.substring(referencePath.lastIndexOf('.') + 1));
-              referencedClass = findGetterMethodReturnType(psiClass, "get" + StringUtil.capitalize(fieldName));
-            }
-            if (referencedClass != null) {
-              PsiMethod[] methods = referencedClass.findMethodsByName(methodName, true);
-                if(methods.length ==0) {
-                   methods=  referencedClass.findMethodsByName("is"+methodName.substring(3), true);
-                }
-              if (methods.length > 0) return methods[0];
-            }
-            return null;
+            BeanProperty property = BeanPropertyTable.resolve(psiClass, referencePath.split("\\."));
+            return property == null ? null : property.getGetter();
           }
 
           public PsiElement handleElementRename(String newElementName) throws IncorrectOperationException {
@@ -192,29 +156,6 @@ public class FieldAccessMethodReferenceProvider extends BaseReferenceProvider {
     return new PsiReference[]{psiReference};
   }
 
-  /**
-   * find getter method return type
-   *
-   * @param psiClass   PsiClass
-   * @param methodName getter method name
-   * @return PsiClass
-   */
-  @Nullable
-  public static PsiClass findGetterMethodReturnType(PsiClass psiClass, String methodName) {
-    PsiMethod[] methods = psiClass.findMethodsByName(methodName, true);
-      if(methods.length == 0) {
-          methods = psiClass.findMethodsByName("is"+methodName.substring(3), true);
-      }
-    //getter method find for current
-    if (methods.length > 0) {
-      PsiMethod psiGetterMethod = methods[0];
-      PsiType returnType = psiGetterMethod.getReturnType();
-      if (returnType != null)
-        return IbatisClassShortcutsReferenceProvider.getPsiClass(psiClass, returnType.getCanonicalText());
-    }
-    return null;
-  }
-
   /**
    * get all  set method for psiClass with type added
    *
@@ -224,29 +165,13 @@ public class FieldAccessMethodReferenceProvider extends BaseReferenceProvider {
    */
   public static Map<String, String> getAllSetterMethods(PsiClass psiClass, String currentMethodName) {
     Map<String, String> methodNames = new HashMap<String, String>();
-    PsiMethod[] psiMethods;
-    String prefix = "";
-    //flat field
-    if (!currentMethodName.contains(".")) {
-      psiMethods = psiClass.getAllMethods();
-    } else {
-      String[] path = (currentMethodName + " ").split("\\.");   //space added to avoid "." ended property
-      PsiClass tempClass = psiClass;
-      for (int i = 0; i < path.length - 1; i++) {
-        String getterMethod = "get" + StringUtil.capitalize(path[i]);
-        tempClass = findGetterMethodReturnType(tempClass, getterMethod);
-        if (tempClass == null) break;
-        prefix = prefix + path[i] + ".";
-      }
-      psiMethods = tempClass != null ? tempClass.getAllMethods() : null;
-    }
-    if (psiMethods != null && psiMethods.length > 0) {
-      for (PsiMethod psiMethod : psiMethods) {
-        String methodName = psiMethod.getName();
-        if (methodName.startsWith("set") && psiMethod.getParameterList().getParametersCount() == 1) {
-          String name = prefix + StringUtil.decapitalize(methodName.replaceFirst("set", ""));
-          String type = psiMethod.getParameterList().getParameters()[0].getType().getPresentableText();
-          methodNames.put(name, type);
+    String prefix = getPathPrefix(currentMethodName);
+    PsiClass ownerClass = getOwnerClass(psiClass, currentMethodName);
+    if (ownerClass != null) {
+      for (BeanProperty property : BeanPropertyTable.getInstance(ownerClass).getProperties()) {
+        PsiMethod setter = property.getSetter();
+        if (setter != null) {
+          methodNames.put(prefix + property.getName(), setter.getParameterList().getParameters()[0].getType().getPresentableText());
         }
       }
     }
@@ -264,40 +189,44 @@ public class FieldAccessMethodReferenceProvider extends BaseReferenceProvider {
   @NotNull
   public static Map<String, String> getAllGetterMethods(PsiClass psiClass, String currentMethodName) {
     Map<String, String> methodNames = new HashMap<String, String>();
-    PsiMethod[] psiMethods = null;
-    String prefix = "";
-    //flat field
-    if (!currentMethodName.contains(".")) {
-      psiMethods = psiClass.getAllMethods();
-    } else {
-      String[] path = (currentMethodName + " ").split("\\.");   //space added to avoid "." ended property
-      PsiClass tempClass = psiClass;
-      for (int i = 0; i < path.length - 1; i++) {
-        String getterMethod = "get" + StringUtil.capitalize(path[i]);
-        tempClass = findGetterMethodReturnType(tempClass, getterMethod);
-        if (tempClass == null) break;
-        prefix = prefix + path[i] + ".";
-      }
-    }
-    if (psiMethods != null && psiMethods.length > 0) {
-      for (PsiMethod psiMethod : psiMethods) {
-        String methodName = psiMethod.getName();
-        if (methodName.startsWith("get") && psiMethod.getParameterList().getParametersCount() == 0) {
-          String name = prefix + StringUtil.decapitalize(methodName.replaceFirst("get", ""));
-          String type = psiMethod.getReturnType().getPresentableText();
-          methodNames.put(name, type);
-        }
-        if (methodName.startsWith("is") && psiMethod.getParameterList().getParametersCount() == 0) {
-          String name = prefix + StringUtil.decapitalize(methodName.replaceFirst("is", ""));
-          String type = psiMethod.getReturnType().getPresentableText();
-          methodNames.put(name, type);
+    String prefix = getPathPrefix(currentMethodName);
+    PsiClass ownerClass = getOwnerClass(psiClass, currentMethodName);
+    if (ownerClass != null) {
+      for (BeanProperty property : BeanPropertyTable.getInstance(ownerClass).getProperties()) {
+        PsiMethod getter = property.getGetter();
+        if (getter != null) {
+          methodNames.put(prefix + property.getName(), getter.getReturnType().getPresentableText());
         }
       }
     }
-    methodNames.remove("class");    //getClass is controled by JVM
+    methodNames.remove(prefix + "class");    //getClass is controled by JVM
     return methodNames;
   }
 
+  /**
+   * get the path before last property, such as "order.customer." for "order.customer.na"
+   *
+   * @param currentMethodName property path
+   * @return path prefix, empty for flat field
+   */
+  private static String getPathPrefix(String currentMethodName) {
+    return currentMethodName.substring(0, currentMethodName.lastIndexOf('.') + 1);
+  }
+
+  /**
+   * get class declaring the last property of path
+   *
+   * @param psiClass          root class
+   * @param currentMethodName property path
+   * @return class, null if the path can't be resolved
+   */
+  @Nullable
+  private static PsiClass getOwnerClass(PsiClass psiClass, String currentMethodName) {
+    if (!currentMethodName.contains(".")) return psiClass;   //flat field
+    String[] path = (currentMethodName + " ").split("\\.");   //space added to avoid "." ended property
+    return BeanPropertyTable.resolveClass(psiClass, path, path.length - 1);
+  }
+
   /**
    * get the psi class for dynamic property
    *
@@ -313,7 +242,8 @@ public class FieldAccessMethodReferenceProvider extends BaseReferenceProvider {
         return IbatisClassShortcutsReferenceProvider.getPsiClass(xmlAttributeValue, className);
       } else if (parentTag.getAttribute("parameterMap") != null) {
         String parameterMapId = parentTag.getAttributeValue("parameterMap");
-        return IbatisManager.getInstance().getAllParameterMap(xmlAttributeValue).get(parameterMapId);
+        ParameterMap parameterMap = (ParameterMap) IbatisManager.getInstance().findSqlMapElement(xmlAttributeValue, parameterMapId, SqlMapElementKind.PARAMETER_MAP);
+        return parameterMap == null ? null : parameterMap.getClazz().getValue();
       } else {
         return getPsiClassForDynamicProperty(parentTag, xmlAttributeValue);
       }
@@ -4,7 +4,6 @@ import com.intellij.codeInsight.lookup.LookupValueFactory;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.resolve.reference.impl.providers.JavaClassReferenceProvider;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.xml.XmlAttributeValue;
 import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.ProcessingContext;
@@ -62,7 +61,7 @@ public class IbatisClassShortcutsReferenceProvider extends WrappedReferenceProvi
         return new PsiReference[]{new WrappedPsiReference(references[references.length - 1]) {
             public PsiElement resolve() {
                 String className = getCanonicalText();
-                if (classShortcuts.containsKey(className) || getTypeAlias(getElement()).containsKey(className)) {
+                if (classShortcuts.containsKey(className) || IbatisManager.getInstance().getAllTypeAlias2(getElement()).containsKey(className)) {
                     return getPsiElement(getElement(), className);
                 }
                 return super.resolve();
@@ -114,14 +113,13 @@ public class IbatisClassShortcutsReferenceProvider extends WrappedReferenceProvi
      * @return PsiClass object
      */
     public static PsiElement getPsiElement(PsiElement psiElement, String className) {
-        Project project = psiElement.getProject();
-        JavaPsiFacade javaPsiFacade = JavaPsiFacade.getInstance(project);
+        IbatisManager manager = IbatisManager.getInstance();
         //short cut
         if (classShortcuts.containsKey(className)) {
-            return javaPsiFacade.findClass(classShortcuts.get(className), GlobalSearchScope.allScope(project));
+            return manager.findClass(psiElement, classShortcuts.get(className));
         }
         //type alias
-        Map<String, XmlTag> typeAlias2 = IbatisManager.getInstance().getAllTypeAlias2(psiElement);
+        Map<String, XmlTag> typeAlias2 = manager.getAllTypeAlias2(psiElement);
         if (typeAlias2.containsKey(className)) {
             return typeAlias2.get(className);
         }
@@ -131,7 +129,7 @@ public class IbatisClassShortcutsReferenceProvider extends WrappedReferenceProvi
             return typeAlias.get(className);
         }
 */
-        return javaPsiFacade.findClass(className, GlobalSearchScope.allScope(project));
+        return manager.findClass(psiElement, className);
     }
 
     /**
@@ -142,21 +140,20 @@ public class IbatisClassShortcutsReferenceProvider extends WrappedReferenceProvi
      * @return PsiClass object
      */
     public static PsiClass getPsiClass(PsiElement psiElement, String className) {
-        Project project = psiElement.getProject();
-        JavaPsiFacade javaPsiFacade = JavaPsiFacade.getInstance(project);
+        IbatisManager manager = IbatisManager.getInstance();
         if (className.endsWith("[]")) {
             className = className.substring(0, className.length() - 2);
         }
         //short cut
         if (classShortcuts.containsKey(className)) {
-            return javaPsiFacade.findClass(classShortcuts.get(className), GlobalSearchScope.allScope(project));
+            return manager.findClass(psiElement, classShortcuts.get(className));
         }
         //type alias
         Map<String, PsiClass> typeAlias = getTypeAlias(psiElement);
         if (typeAlias.containsKey(className)) {
             return typeAlias.get(className);
         }
-        return javaPsiFacade.findClass(className, GlobalSearchScope.allScope(project));
+        return manager.findClass(psiElement, className);
     }
 
     /**
@@ -5,11 +5,12 @@ import com.intellij.psi.PsiReference;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.*;
 import com.intellij.util.IncorrectOperationException;
+import com.intellij.util.xml.DomElement;
 import org.intellij.ibatis.IbatisManager;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -25,9 +26,9 @@ public class ParameterMapReferenceProvider extends BaseReferenceProvider {
 
             @Nullable public PsiElement resolve() {
 //                String resultMapId = getCanonicalText()
-                String resultMapId = getReferenceId(getElement());
-                Map<String, XmlTag> allResultMap = IbatisManager.getInstance().getAllParameterMap2(getElement());
-                return allResultMap.get(resultMapId);
+                String parameterMapId = getReferenceId(getElement());
+                DomElement parameterMap = IbatisManager.getInstance().findSqlMapElement(getElement(), parameterMapId, SqlMapElementKind.PARAMETER_MAP);
+                return parameterMap == null ? null : parameterMap.getXmlTag();
             }
 
             public Object[] getVariants() {
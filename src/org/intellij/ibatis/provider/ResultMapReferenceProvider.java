@@ -5,11 +5,12 @@ import com.intellij.psi.PsiReference;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.*;
 import com.intellij.util.IncorrectOperationException;
+import com.intellij.util.xml.DomElement;
 import org.intellij.ibatis.IbatisManager;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -27,8 +28,8 @@ public class ResultMapReferenceProvider extends BaseReferenceProvider {
             @Nullable
             public PsiElement resolve() {
                 String resultMapId = getReferenceId(getElement());
-                Map<String, XmlTag> allResultMap = IbatisManager.getInstance().getAllResultMap2(getElement());
-                return allResultMap.get(resultMapId);
+                DomElement resultMap = IbatisManager.getInstance().findSqlMapElement(getElement(), resultMapId, SqlMapElementKind.RESULT_MAP);
+                return resultMap == null ? null : resultMap.getXmlTag();
             }
 
             public Object[] getVariants() {
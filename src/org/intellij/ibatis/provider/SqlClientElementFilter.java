@@ -1,20 +1,22 @@
 package org.intellij.ibatis.provider;
 
+import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.patterns.ElementPattern;
 import com.intellij.patterns.ElementPatternCondition;
 import com.intellij.patterns.InitialPatternCondition;
-import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiLiteralExpression;
-import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.*;
 import com.intellij.util.ProcessingContext;
 import org.intellij.ibatis.util.IbatisUtil;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.regex.Pattern;
+
 /**
- * sql map client method call filter
+ * sql map client method call filter, the cheap structural checks go first so most literals are rejected quickly
  */
 public class SqlClientElementFilter implements ElementPattern<PsiLiteralExpression> {
-    public static String operationPattern = "(execute)?((query[(for)|(with)]\\w*)|insert|update|delete)";
+    public static final String operationPattern = "(execute)?((query[(for)|(with)]\\w*)|insert|update|delete)";
+    private static final Pattern OPERATION_PATTERN = Pattern.compile(operationPattern);
 
     public boolean accepts(@Nullable Object o) {
         return false;
@@ -28,31 +30,39 @@ public class SqlClientElementFilter implements ElementPattern<PsiLiteralExpressi
         return new ElementPatternCondition<PsiLiteralExpression>(new InitialPatternCondition<PsiLiteralExpression>(PsiLiteralExpression.class) {
             @Override
             public boolean accepts(@Nullable Object o, ProcessingContext processingContext) {
-                PsiLiteralExpression literalExpression = (PsiLiteralExpression) o;
-                PsiElement parent = literalExpression.getParent().getParent();
-                if (parent != null && parent instanceof PsiMethodCallExpression) {
-                    //first parameter validate
-                    PsiElement previousElement = literalExpression.getPrevSibling();
-                    if (previousElement != null) {
-                        String text1 = previousElement.getText();
-                        String text2 = "";
-                        if (!text1.equals("(") && previousElement.getPrevSibling() != null) {
-                            text2 = previousElement.getPrevSibling().getText();
-                        }
-                        if (!(text1.equals("(") || (text1.concat(text2).trim().equals("(")))) {
-                            return false;
-                        }
-                    }
-                    //method validation
-                    final PsiMethodCallExpression callExpression = (PsiMethodCallExpression) parent;
-                    String[] path = callExpression.getMethodExpression().getText().split("\\.");
-                    String methodName = path[path.length - 1].trim().toLowerCase();
-                    if (methodName.matches(operationPattern) && IbatisUtil.getConfig(literalExpression) != null) {
-                        return true;
-                    }
-                }
-                return false;
+                return o instanceof PsiLiteralExpression && isSqlClientArgument((PsiLiteralExpression) o);
             }
         });
     }
+
+    /**
+     * validate the literal is first argument of SqlMapClient style call in iBATIS module
+     *
+     * @param literalExpression literal expression
+     * @return statement id argument mark
+     */
+    public static boolean isSqlClientArgument(PsiLiteralExpression literalExpression) {
+        //first parameter validate
+        PsiElement parent = literalExpression.getParent();
+        if (!(parent instanceof PsiExpressionList) || !(parent.getParent() instanceof PsiMethodCallExpression)) return false;
+        PsiExpression[] expressions = ((PsiExpressionList) parent).getExpressions();
+        if (expressions.length == 0 || expressions[0] != literalExpression) return false;
+        //method validation
+        String methodName = ((PsiMethodCallExpression) parent.getParent()).getMethodExpression().getReferenceName();
+        if (methodName == null || !isSqlClientOperation(methodName.toLowerCase())) return false;
+        //module validation
+        return IbatisUtil.isIbatisModule(ModuleUtil.findModuleForPsiElement(parent));
+    }
+
+    /**
+     * validate method name is operation of SqlMapClient
+     *
+     * @param methodName method name in lower case
+     * @return operation mark
+     */
+    public static boolean isSqlClientOperation(String methodName) {
+        if (methodName.length() == 0) return false;
+        char first = methodName.charAt(0);
+        return (first == 'e' || first == 'q' || first == 'i' || first == 'u' || first == 'd') && OPERATION_PATTERN.matcher(methodName).matches();
+    }
 }
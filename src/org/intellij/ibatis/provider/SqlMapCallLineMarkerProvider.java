@@ -0,0 +1,76 @@
+package org.intellij.ibatis.provider;
+
+import com.intellij.codeHighlighting.Pass;
+import com.intellij.codeInsight.daemon.GutterIconNavigationHandler;
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.codeInsight.daemon.LineMarkerProvider;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.pom.Navigatable;
+import com.intellij.psi.*;
+import com.intellij.util.Function;
+import org.intellij.ibatis.IbatisManager;
+import org.intellij.ibatis.model.SqlMapElementKind;
+import org.intellij.ibatis.util.IbatisBundle;
+import org.intellij.ibatis.util.IbatisConstants;
+import org.intellij.ibatis.util.IbatisUtil;
+
+import java.awt.event.MouseEvent;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * gutter marker for statement id passed to SqlMapClient call, the statement is checked in id index with the same
+ * module, namespace and kind filter as statement id reference, and resolved when the marker is clicked.
+ *
+ * @author Jacky
+ */
+public class SqlMapCallLineMarkerProvider implements LineMarkerProvider {
+    private static final Function<PsiLiteralExpression, String> TOOLTIP_PROVIDER = new Function<PsiLiteralExpression, String>() {
+        public String fun(PsiLiteralExpression literalExpression) {
+            return IbatisBundle.message("ibatis.linemarker.statement.tooltip");
+        }
+    };
+
+    private static final GutterIconNavigationHandler<PsiLiteralExpression> NAVIGATION_HANDLER = new GutterIconNavigationHandler<PsiLiteralExpression>() {
+        public void navigate(MouseEvent e, PsiLiteralExpression literalExpression) {
+            for (PsiReference reference : literalExpression.getReferences()) {
+                if (reference instanceof StatementIdReferenceProvider.StatementIdReference) {
+                    PsiElement statementTag = reference.resolve();
+                    if (statementTag instanceof Navigatable) ((Navigatable) statementTag).navigate(true);
+                    return;
+                }
+            }
+        }
+    };
+
+    public LineMarkerInfo getLineMarkerInfo(PsiElement element) {
+        return null;
+    }
+
+    public void collectSlowLineMarkers(List<PsiElement> elements, Collection<LineMarkerInfo> result) {
+        for (PsiElement element : elements) {
+            ProgressManager.getInstance().checkCanceled();
+            if (!(element instanceof PsiLiteralExpression)) continue;
+            PsiLiteralExpression literalExpression = (PsiLiteralExpression) element;
+            String statementId = getStatementId(literalExpression);
+            if (statementId == null) continue;
+            PsiMethodCallExpression callExpression = (PsiMethodCallExpression) literalExpression.getParent().getParent();
+            SqlMapElementKind[] kinds = IbatisUtil.getStatementKinds(callExpression.resolveMethod());
+            if (kinds.length == 0 || !IbatisManager.getInstance().isSqlMapElementDeclared(literalExpression, statementId, kinds)) continue;
+            result.add(new LineMarkerInfo<PsiLiteralExpression>(literalExpression, literalExpression.getTextRange().getStartOffset(), IbatisConstants.IBATIS_LOGO,
+                    Pass.UPDATE_OVERRIDEN_MARKERS, TOOLTIP_PROVIDER, NAVIGATION_HANDLER));
+        }
+    }
+
+    /**
+     * get statement id if the literal is first argument of SqlMapClient style call
+     *
+     * @param literalExpression literal expression
+     * @return statement id, null if the literal is not passed to SqlMapClient call
+     */
+    private static String getStatementId(PsiLiteralExpression literalExpression) {
+        Object value = literalExpression.getValue();
+        if (!(value instanceof String) || !SqlClientElementFilter.isSqlClientArgument(literalExpression)) return null;
+        return (String) value;
+    }
+}
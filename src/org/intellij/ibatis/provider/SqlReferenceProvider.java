@@ -5,8 +5,10 @@ import com.intellij.psi.PsiReference;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.*;
 import com.intellij.util.IncorrectOperationException;
+import com.intellij.util.xml.DomElement;
 import org.intellij.ibatis.IbatisManager;
 import org.intellij.ibatis.dom.sqlMap.Sql;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -26,8 +28,7 @@ public class SqlReferenceProvider extends BaseReferenceProvider {
             @Nullable public PsiElement resolve() {
 //                String sqlId = getCanonicalText();
                 String sqlId = getReferenceId(getElement());
-                Map<String, Sql> sqlList = IbatisManager.getInstance().getAllSql(getElement());
-                Sql sql = sqlList.get(sqlId);
+                DomElement sql = IbatisManager.getInstance().findSqlMapElement(getElement(), sqlId, SqlMapElementKind.SQL);
                 return sql == null ? null : sql.getXmlTag();
             }
 
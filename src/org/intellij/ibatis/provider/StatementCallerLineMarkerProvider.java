@@ -0,0 +1,101 @@
+package org.intellij.ibatis.provider;
+
+import com.intellij.codeHighlighting.Pass;
+import com.intellij.codeInsight.daemon.GutterIconNavigationHandler;
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.codeInsight.daemon.LineMarkerProvider;
+import com.intellij.codeInsight.navigation.NavigationUtil;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.pom.Navigatable;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.ui.awt.RelativePoint;
+import com.intellij.util.CommonProcessors;
+import com.intellij.util.Function;
+import org.intellij.ibatis.model.SqlMapElementKind;
+import org.intellij.ibatis.usages.SqlMapCallReferencesSearcher;
+import org.intellij.ibatis.util.IbatisBundle;
+import org.intellij.ibatis.util.IbatisConstants;
+
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * gutter marker for statement called in Java code, the literals found in call index of module are resolved
+ * and the marker is added only if one of them refers to the statement.
+ *
+ * @author Jacky
+ */
+public class StatementCallerLineMarkerProvider implements LineMarkerProvider {
+    private static final Function<XmlTag, String> TOOLTIP_PROVIDER = new Function<XmlTag, String>() {
+        public String fun(XmlTag xmlTag) {
+            return IbatisBundle.message("ibatis.linemarker.caller.tooltip");
+        }
+    };
+
+    private static final GutterIconNavigationHandler<XmlTag> NAVIGATION_HANDLER = new GutterIconNavigationHandler<XmlTag>() {
+        public void navigate(MouseEvent e, XmlTag xmlTag) {
+            CommonProcessors.CollectProcessor<PsiReference> processor = new CommonProcessors.CollectProcessor<PsiReference>();
+            SqlMapCallReferencesSearcher.processCalls(xmlTag, getCallerScope(xmlTag), processor);
+            List<PsiElement> callers = new ArrayList<PsiElement>();
+            for (PsiReference reference : processor.getResults()) {
+                callers.add(reference.getElement());
+            }
+            if (callers.size() == 1) {
+                if (callers.get(0) instanceof Navigatable) ((Navigatable) callers.get(0)).navigate(true);
+            } else if (callers.size() > 1) {
+                NavigationUtil.getPsiElementPopup(callers.toArray(new PsiElement[callers.size()]),
+                        IbatisBundle.message("ibatis.linemarker.caller.popup", xmlTag.getAttributeValue("id"))).show(new RelativePoint(e));
+            }
+        }
+    };
+
+    public LineMarkerInfo getLineMarkerInfo(PsiElement element) {
+        return null;
+    }
+
+    public void collectSlowLineMarkers(List<PsiElement> elements, Collection<LineMarkerInfo> result) {
+        for (PsiElement element : elements) {
+            ProgressManager.getInstance().checkCanceled();
+            if (!(element instanceof XmlTag)) continue;
+            XmlTag xmlTag = (XmlTag) element;
+            if (!isStatement(xmlTag)) continue;
+            CommonProcessors.FindFirstProcessor<PsiReference> processor = new CommonProcessors.FindFirstProcessor<PsiReference>();
+            SqlMapCallReferencesSearcher.processCalls(xmlTag, getCallerScope(xmlTag), processor);
+            if (!processor.isFound()) continue;
+            result.add(new LineMarkerInfo<XmlTag>(xmlTag, xmlTag.getTextRange().getStartOffset(), IbatisConstants.IBATIS_LOGO,
+                    Pass.UPDATE_OVERRIDEN_MARKERS, TOOLTIP_PROVIDER, NAVIGATION_HANDLER));
+        }
+    }
+
+    /**
+     * validate the tag is statement declared in SQL Map file
+     *
+     * @param xmlTag xml tag
+     * @return statement mark
+     */
+    private static boolean isStatement(XmlTag xmlTag) {
+        XmlTag parentTag = xmlTag.getParentTag();
+        if (parentTag == null || parentTag.getParentTag() != null || !"sqlMap".equals(parentTag.getName())) return false;
+        SqlMapElementKind kind = SqlMapElementKind.fromTagName(xmlTag.getName());
+        return kind != null && kind.isStatement() && xmlTag.getAttributeValue("id") != null && xmlTag.getContainingFile() instanceof XmlFile;
+    }
+
+    /**
+     * get scope of Java callers: the module of SQL Map file and the modules depending on it
+     *
+     * @param xmlTag statement tag
+     * @return search scope
+     */
+    private static GlobalSearchScope getCallerScope(XmlTag xmlTag) {
+        Module module = ModuleUtil.findModuleForPsiElement(xmlTag);
+        return module == null ? GlobalSearchScope.allScope(xmlTag.getProject()) : GlobalSearchScope.moduleWithDependentsScope(module);
+    }
+}
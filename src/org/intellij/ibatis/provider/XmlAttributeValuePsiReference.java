@@ -8,8 +8,7 @@ import com.intellij.psi.PsiReference;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.*;
 import com.intellij.util.IncorrectOperationException;
-import org.intellij.ibatis.IbatisConfigurationModel;
-import org.intellij.ibatis.IbatisManager;
+import org.intellij.ibatis.util.IbatisUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -74,13 +73,8 @@ public class XmlAttributeValuePsiReference implements PsiReference {
     @NotNull
     public String getReferenceId(PsiElement psiElement) {
         Module module = ModuleUtil.findModuleForPsiElement(psiElement.getContainingFile());
-        if (module != null) {
-            IbatisConfigurationModel model = IbatisManager.getInstance().getConfigurationModel(module);
-            if (model != null) {
-                if (model.isUseStatementNamespaces()) {
-                    return getCanonicalTextWithNameSpace();
-                }
-            }
+        if (IbatisUtil.isUseStatementNamespaces(module)) {
+            return getCanonicalTextWithNameSpace();
         }
         return getCanonicalText();
     }
@@ -97,15 +91,9 @@ public class XmlAttributeValuePsiReference implements PsiReference {
             XmlAttributeValue xmlAttributeValue = (XmlAttributeValue) getElement();
             XmlFile psiFile = (XmlFile) xmlAttributeValue.getContainingFile();
             if (psiFile != null) {
-                XmlDocument document = psiFile.getDocument();
-                if (document != null) {
-                    XmlTag rootTag = document.getRootTag();
-                    if (rootTag != null) {
-                        String namespace = rootTag.getAttributeValue("namespace");
-                        if (namespace != null && namespace.length() > 0) {
-                            return namespace + "." + id;
-                        }
-                    }
+                String namespace = IbatisUtil.getNamespace(psiFile);
+                if (namespace.length() > 0) {
+                    return namespace + "." + id;
                 }
             }
         }
@@ -0,0 +1,99 @@
+package org.intellij.ibatis.usages;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.Processor;
+import com.intellij.util.QueryExecutor;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.intellij.ibatis.index.SqlMapCallIndex;
+import org.intellij.ibatis.model.SqlMapElementKind;
+import org.intellij.ibatis.provider.StatementIdReferenceProvider;
+import org.intellij.ibatis.util.IbatisUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * find the Java calls of statement with the help of call index, only the files which pass the statement id are opened.
+ *
+ * @author Jacky
+ */
+public class SqlMapCallReferencesSearcher implements QueryExecutor<PsiReference, ReferencesSearch.SearchParameters> {
+
+    public boolean execute(final ReferencesSearch.SearchParameters queryParameters, final Processor<PsiReference> consumer) {
+        final PsiElement element = queryParameters.getElementToSearch();
+        if (!(element instanceof XmlTag)) return true;
+        SearchScope scope = queryParameters.getScope();
+        if (!(scope instanceof GlobalSearchScope)) return true;   //local scope is left to the word search
+        return processCalls((XmlTag) element, (GlobalSearchScope) scope, consumer);
+    }
+
+    /**
+     * process the references of Java calls which execute the statement
+     *
+     * @param statementTag statement tag
+     * @param scope        search scope
+     * @param processor    reference processor
+     * @return false if processor stopped
+     */
+    public static boolean processCalls(@NotNull final XmlTag statementTag, @NotNull final GlobalSearchScope scope, @NotNull final Processor<PsiReference> processor) {
+        final Map<VirtualFile, List<Integer>> calls = ApplicationManager.getApplication().runReadAction(new Computable<Map<VirtualFile, List<Integer>>>() {
+            public Map<VirtualFile, List<Integer>> compute() {
+                return findCallOffsets(statementTag, scope);
+            }
+        });
+        for (final Map.Entry<VirtualFile, List<Integer>> entry : calls.entrySet()) {
+            boolean proceed = ApplicationManager.getApplication().runReadAction(new Computable<Boolean>() {
+                public Boolean compute() {
+                    if (!statementTag.isValid()) return true;
+                    PsiFile psiFile = PsiManager.getInstance(statementTag.getProject()).findFile(entry.getKey());
+                    if (psiFile == null) return true;
+                    for (Integer offset : entry.getValue()) {
+                        PsiLiteralExpression literal = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offset), PsiLiteralExpression.class);
+                        if (literal == null) continue;
+                        for (PsiReference reference : literal.getReferences()) {
+                            if (reference instanceof StatementIdReferenceProvider.StatementIdReference && reference.isReferenceTo(statementTag)) {
+                                if (!processor.process(reference)) return false;
+                            }
+                        }
+                    }
+                    return true;
+                }
+            });
+            if (!proceed) return false;
+        }
+        return true;
+    }
+
+    /**
+     * find offsets of the literals which pass the unique name of statement
+     *
+     * @param statementTag statement tag
+     * @param scope        search scope
+     * @return offsets in file
+     */
+    private static Map<VirtualFile, List<Integer>> findCallOffsets(XmlTag statementTag, GlobalSearchScope scope) {
+        final Map<VirtualFile, List<Integer>> calls = new HashMap<VirtualFile, List<Integer>>();
+        SqlMapElementKind kind = SqlMapElementKind.fromTagName(statementTag.getName());
+        String id = statementTag.getAttributeValue("id");
+        if (kind == null || !kind.isStatement() || id == null || !(statementTag.getContainingFile() instanceof XmlFile)) return calls;
+        String name = IbatisUtil.getUniqueName((XmlFile) statementTag.getContainingFile(), id);
+        FileBasedIndex.getInstance().processValues(SqlMapCallIndex.NAME, name, null, new FileBasedIndex.ValueProcessor<List<Integer>>() {
+            public boolean process(VirtualFile file, List<Integer> offsets) {
+                calls.put(file, offsets);
+                return true;
+            }
+        }, scope);
+        return calls;
+    }
+}
@@ -0,0 +1,145 @@
+package org.intellij.ibatis.util;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.intellij.ibatis.model.BeanProperty;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * bean properties of class, built from all methods once and cached until Java structure changed.
+ * nested path such as "order.customer.address" is resolved by lookup in the table of each property class.
+ *
+ * @author Jacky
+ */
+public class BeanPropertyTable {
+    private static final Key<CachedValue<BeanPropertyTable>> TABLE_KEY = Key.create("ibatis.beanPropertyTable");
+    /**
+     * property name with first char capitalized -> property, same as the accessor name without prefix
+     */
+    private final Map<String, BeanProperty> properties = new HashMap<String, BeanProperty>();
+
+    private BeanPropertyTable(PsiClass psiClass) {
+        for (PsiMethod psiMethod : psiClass.getAllMethods()) {
+            String methodName = psiMethod.getName();
+            int parametersCount = psiMethod.getParameterList().getParametersCount();
+            if (parametersCount == 0 && psiMethod.getReturnType() != null && psiMethod.getReturnType() != PsiType.VOID) {
+                if (methodName.startsWith("get") && methodName.length() > 3) {
+                    BeanProperty property = getOrCreate(methodName.substring(3));
+                    if (property.getGetter() == null || property.getGetter().getName().startsWith("is")) property.setGetter(psiMethod);
+                } else if (methodName.startsWith("is") && methodName.length() > 2) {
+                    BeanProperty property = getOrCreate(methodName.substring(2));
+                    if (property.getGetter() == null) property.setGetter(psiMethod);
+                }
+            } else if (parametersCount == 1 && methodName.startsWith("set") && methodName.length() > 3) {
+                BeanProperty property = getOrCreate(methodName.substring(3));
+                if (property.getSetter() == null) property.setSetter(psiMethod);
+            }
+        }
+    }
+
+    private BeanProperty getOrCreate(String accessorSuffix) {
+        BeanProperty property = properties.get(accessorSuffix);
+        if (property == null) {
+            property = new BeanProperty(StringUtil.decapitalize(accessorSuffix));
+            properties.put(accessorSuffix, property);
+        }
+        return property;
+    }
+
+    /**
+     * get property table of class
+     *
+     * @param psiClass class
+     * @return property table
+     */
+    @NotNull
+    public static BeanPropertyTable getInstance(@NotNull final PsiClass psiClass) {
+        CachedValue<BeanPropertyTable> cachedValue = psiClass.getUserData(TABLE_KEY);
+        if (cachedValue == null) {
+            cachedValue = CachedValuesManager.getManager(psiClass.getProject()).createCachedValue(new CachedValueProvider<BeanPropertyTable>() {
+                public Result<BeanPropertyTable> compute() {
+                    return Result.create(new BeanPropertyTable(psiClass), PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+                }
+            }, false);
+            psiClass.putUserData(TABLE_KEY, cachedValue);
+        }
+        return cachedValue.getValue();
+    }
+
+    /**
+     * get property by name
+     *
+     * @param name property name
+     * @return property, null if not found
+     */
+    @Nullable
+    public BeanProperty getProperty(@NotNull String name) {
+        return properties.get(StringUtil.capitalize(name));
+    }
+
+    /**
+     * get all properties
+     *
+     * @return property list
+     */
+    @NotNull
+    public Collection<BeanProperty> getProperties() {
+        return properties.values();
+    }
+
+    /**
+     * resolve the last property of path, such as "city" for "customer.address.city"
+     *
+     * @param psiClass root class
+     * @param path     property path
+     * @return property, null if any property in path not found
+     */
+    @Nullable
+    public static BeanProperty resolve(@NotNull PsiClass psiClass, @NotNull String[] path) {
+        if (path.length == 0) return null;
+        PsiClass ownerClass = resolveClass(psiClass, path, path.length - 1);
+        return ownerClass == null ? null : getInstance(ownerClass).getProperty(path[path.length - 1]);
+    }
+
+    /**
+     * resolve the class of property path
+     *
+     * @param psiClass root class
+     * @param path     property path
+     * @return property class, null if any property in path not found
+     */
+    @Nullable
+    public static PsiClass resolveClass(@NotNull PsiClass psiClass, @NotNull String[] path) {
+        return resolveClass(psiClass, path, path.length);
+    }
+
+    /**
+     * resolve the class of first properties in path
+     *
+     * @param psiClass root class
+     * @param path     property path
+     * @param length   count of properties to resolve
+     * @return property class, null if any property not found
+     */
+    @Nullable
+    public static PsiClass resolveClass(@NotNull PsiClass psiClass, @NotNull String[] path, int length) {
+        PsiClass referencedClass = psiClass;
+        for (int i = 0; i < length && referencedClass != null; i++) {
+            BeanProperty property = getInstance(referencedClass).getProperty(path[i]);
+            referencedClass = property == null ? null : property.getPropertyClass();
+        }
+        return referencedClass;
+    }
+}
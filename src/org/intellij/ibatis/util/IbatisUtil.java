@@ -2,23 +2,41 @@ package org.intellij.ibatis.util;
 
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.xml.XmlAttribute;
-import com.intellij.psi.xml.XmlTag;
-import com.intellij.psi.xml.XmlText;
-import com.intellij.util.xml.DomManager;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.xml.*;
+import com.intellij.util.Function;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
-import org.intellij.ibatis.dom.sqlMap.Sql;
+import org.intellij.ibatis.IbatisConfigurationModel;
+import org.intellij.ibatis.IbatisConfigurationModelFactory;
+import org.intellij.ibatis.IbatisManager;
+import org.intellij.ibatis.IbatisProjectComponent;
 import org.intellij.ibatis.facet.IbatisFacet;
 import org.intellij.ibatis.facet.IbatisFacetConfiguration;
+import org.intellij.ibatis.model.InlineParameter;
+import org.intellij.ibatis.model.SqlMapElementKind;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,6 +44,33 @@ import java.util.regex.Pattern;
  * utility class in iBATIS plug-in
  */
 public class IbatisUtil {
+    private static final Key<CachedValue<String>> NAMESPACE_KEY = Key.create("ibatis.sqlMap.namespace");
+    private static final Key<CachedValue<Boolean>> STATEMENT_NAMESPACES_KEY = Key.create("ibatis.useStatementNamespaces");
+    private static final Key<CachedValue<Expansion>> EXPANSION_KEY = Key.create("ibatis.statement.expansion");
+    private static final Key<Pair<String, List<InlineParameter>>> INLINE_PARAMETERS_KEY = Key.create("ibatis.statement.inlineParameters");
+    private static final Key<Pair<String, List<InlineParameter>>> SQL_INLINE_PARAMETERS_KEY = Key.create("ibatis.statement.sqlInlineParameters");
+    private static final Key<CachedValue<Boolean>> IBATIS_MODULE_KEY = Key.create("ibatis.module");
+    private static final Key<CachedValue<SqlMapElementKind[]>> STATEMENT_KINDS_KEY = Key.create("ibatis.sqlMapClient.statementKinds");
+    private static final String[] SQL_MAP_CLIENT_CLASSES = {"com.ibatis.sqlmap.client.SqlMapClient", "com.ibatis.sqlmap.client.SqlMapExecutor",
+            "com.ibatis.sqlmap.client.SqlMapSession", "org.springframework.orm.ibatis.SqlMapClientTemplate", "org.springframework.orm.ibatis.SqlMapClientOperations"};
+    private static final SqlMapElementKind[] NO_KINDS = new SqlMapElementKind[0];
+    private static final ThreadLocal<List<XmlTag>> EXPANSION_PATH = new ThreadLocal<List<XmlTag>>() {
+        protected List<XmlTag> initialValue() {
+            return new ArrayList<XmlTag>();
+        }
+    };
+    private static final int NO_BACK_EDGE = Integer.MAX_VALUE;
+    /**
+     * tracker which is changed on every check, the cached value depending on it is never reused
+     */
+    private static final ModificationTracker EVER_CHANGED = new ModificationTracker() {
+        private final AtomicLong count = new AtomicLong();
+
+        public long getModificationCount() {
+            return count.incrementAndGet();
+        }
+    };
+
     /**
      * get the table name with schema
      *
@@ -37,35 +82,427 @@ public class IbatisUtil {
     }
 
     /**
-     * get the SQL code in xml tag
+     * get the SQL code in xml tag, dynamic sub tags are skipped and included sql fragments are expanded.
+     * the result is cached until the file of tag or the included fragments changed
      *
      * @param xmlTag xml tag
      * @return SQL in xml tag
      */
-    @SuppressWarnings({"ConstantConditions"})
     @NotNull
-    public static String getSQLForXmlTag(XmlTag xmlTag) {
-        StringBuilder sql = new StringBuilder();
-        PsiElement[] children = xmlTag.getChildren();
-        for (PsiElement child : children) {
+    public static String getSQLForXmlTag(@NotNull XmlTag xmlTag) {
+        return getExpansion(xmlTag).sql;
+    }
+
+    /**
+     * get all text in xml tag including dynamic sub tags, included sql fragments are expanded too.
+     * the result is cached until the file of tag or the included fragments changed
+     *
+     * @param xmlTag xml tag
+     * @return xml text
+     */
+    @NotNull
+    public static String getAllTextForXmlTag(@NotNull XmlTag xmlTag) {
+        return getExpansion(xmlTag).allText;
+    }
+
+    /**
+     * get the SQL code in xml tag with the content of dynamic sub tags, the prepend, open and close of dynamic tag
+     * are added around its content, so every statement part which may be generated is included.
+     * the start and end of every dynamic tag are marked with SelectListExtractor.ITEM_BOUNDARY
+     *
+     * @param xmlTag xml tag
+     * @return SQL in xml tag with all dynamic parts
+     */
+    @NotNull
+    public static String getDynamicSQLForXmlTag(@NotNull XmlTag xmlTag) {
+        return getExpansion(xmlTag).dynamicSql;
+    }
+
+    /**
+     * get the include cycle reached from xml tag, such as "a -> b -> a"
+     *
+     * @param xmlTag statement or sql tag
+     * @return include cycle, null if the includes of tag terminate
+     */
+    @Nullable
+    public static String getIncludeCycle(@NotNull XmlTag xmlTag) {
+        return getExpansion(xmlTag).cycle;
+    }
+
+    /**
+     * get in line parameters in xml tag, dynamic sub tags and included sql fragments are scanned too.
+     * the parameters are kept until the text of tag changed
+     *
+     * @param xmlTag xml tag
+     * @return in line parameters, the offset is in the text returned by getAllTextForXmlTag
+     */
+    @NotNull
+    public static List<InlineParameter> getInlineParameters(@NotNull XmlTag xmlTag) {
+        return getInlineParameters(xmlTag, getAllTextForXmlTag(xmlTag), INLINE_PARAMETERS_KEY);
+    }
+
+    /**
+     * get in line parameters in the SQL code of xml tag, the parameters in dynamic sub tags are skipped.
+     * the parameters are kept until the text of tag changed
+     *
+     * @param xmlTag xml tag
+     * @return in line parameters, the offset is in the text returned by getSQLForXmlTag
+     */
+    @NotNull
+    public static List<InlineParameter> getInlineParametersInSQL(@NotNull XmlTag xmlTag) {
+        return getInlineParameters(xmlTag, getSQLForXmlTag(xmlTag), SQL_INLINE_PARAMETERS_KEY);
+    }
+
+    private static List<InlineParameter> getInlineParameters(XmlTag xmlTag, String text, Key<Pair<String, List<InlineParameter>>> key) {
+        Pair<String, List<InlineParameter>> cached = xmlTag.getUserData(key);
+        if (cached != null && cached.first == text) return cached.second;
+        List<InlineParameter> parameters = Collections.unmodifiableList(InlineParameterScanner.scan(text));
+        xmlTag.putUserData(key, Pair.create(text, parameters));
+        return parameters;
+    }
+
+    /**
+     * replace in line parameters in text with values, the parameters are located by their offsets
+     *
+     * @param text       text which the parameters are scanned from
+     * @param parameters in line parameters in order of offset
+     * @param values     value of parameter, null to keep the parameter
+     * @return text with parameters replaced
+     */
+    @NotNull
+    public static String replaceInlineParameters(@NotNull String text, @NotNull List<InlineParameter> parameters,
+                                                 @NotNull Function<InlineParameter, String> values) {
+        StringBuilder result = new StringBuilder(text.length());
+        int position = 0;
+        for (InlineParameter parameter : parameters) {
+            String value = values.fun(parameter);
+            if (value == null || parameter.getOffset() < position) continue;
+            result.append(text, position, parameter.getOffset()).append(value);
+            position = parameter.getOffset() + parameter.getLength();
+        }
+        return result.append(text, position, text.length()).toString();
+    }
+
+    /**
+     * get the objects which the expanded text of tag depends on: the files of tag and all fragments reached,
+     * a value cached on them is dropped when the expansion changes
+     *
+     * @param xmlTag xml tag
+     * @return dependencies for CachedValueProvider.Result
+     */
+    @NotNull
+    public static Object[] getExpansionDependencies(@NotNull XmlTag xmlTag) {
+        Expansion expansion = getExpansion(xmlTag);
+        return expansion.backEdgeIndex == NO_BACK_EDGE ? expansion.dependencies : new Object[]{EVER_CHANGED};
+    }
+
+    /**
+     * get expanded text of statement or sql tag. every sql fragment is expanded once and reused by all tags including it,
+     * the expansion depends on the files of all fragments reached, so it's dropped when any of them changed.
+     * a fragment expanded on an include cycle which goes back above it depends on the tag the walk started from,
+     * so its expansion is never reused.
+     *
+     * @param xmlTag xml tag
+     * @return expansion
+     */
+    private static Expansion getExpansion(@NotNull final XmlTag xmlTag) {
+        CachedValue<Expansion> cachedValue = xmlTag.getUserData(EXPANSION_KEY);
+        if (cachedValue == null) {
+            cachedValue = CachedValuesManager.getManager(xmlTag.getProject()).createCachedValue(new CachedValueProvider<Expansion>() {
+                public Result<Expansion> compute() {
+                    Expansion expansion = expand(xmlTag);
+                    if (expansion.backEdgeIndex == NO_BACK_EDGE) return Result.create(expansion, expansion.dependencies);
+                    return Result.create(expansion, EVER_CHANGED);
+                }
+            }, false);
+            xmlTag.putUserData(EXPANSION_KEY, cachedValue);
+        }
+        return cachedValue.getValue();
+    }
+
+    private static Expansion expand(XmlTag xmlTag) {
+        List<XmlTag> path = EXPANSION_PATH.get();
+        int index = path.size();
+        path.add(xmlTag);
+        try {
+            ExpansionBuilder builder = new ExpansionBuilder();
+            builder.dependencies.add(xmlTag.getContainingFile());
+            expandChildren(xmlTag, false, builder);
+            // back edges to this tag or the fragments below it don't depend on the walk
+            int backEdgeIndex = builder.backEdgeIndex < index ? builder.backEdgeIndex : NO_BACK_EDGE;
+            return new Expansion(builder.sql.toString(), builder.allText.toString(), builder.dynamicSql.toString(), builder.cycle,
+                    backEdgeIndex, builder.dependencies.toArray());
+        } finally {
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /**
+     * append text of children, the text in dynamic sub tags is appended to all text and dynamic SQL only
+     *
+     * @param xmlTag  xml tag
+     * @param dynamic dynamic sub tag mark
+     * @param builder expansion being built
+     */
+    private static void expandChildren(XmlTag xmlTag, boolean dynamic, ExpansionBuilder builder) {
+        for (PsiElement child : xmlTag.getChildren()) {
             if (child instanceof XmlTag) {
                 XmlTag tag = (XmlTag) child;
-                if (tag.getName().equals("include")) {
-                    XmlAttribute refid = tag.getAttribute("refid");
-                    if (refid != null && StringUtil.isNotEmpty(refid.getText())) {
-                        PsiElement psiElement = refid.getValueElement().getReference().resolve();
-                        if (psiElement != null && psiElement instanceof XmlTag) {
-                            Sql sqlDom = (Sql) DomManager.getDomManager(psiElement.getProject()).getDomElement((XmlTag) psiElement);
-                            if (sqlDom != null)
-                                sql.append(" ").append(sqlDom.getSQL());
-                        }
-                    }
+                if (tag.getName().equals("include")) {   // include element
+                    expandInclude(tag, dynamic, builder);
+                } else {
+                    builder.dynamicSql.append(SelectListExtractor.ITEM_BOUNDARY);
+                    appendAttribute(tag, "prepend", builder.dynamicSql);
+                    appendAttribute(tag, "open", builder.dynamicSql);
+                    expandChildren(tag, true, builder);
+                    appendAttribute(tag, "close", builder.dynamicSql);
+                    builder.dynamicSql.append(SelectListExtractor.ITEM_BOUNDARY);
                 }
             } else if (child instanceof XmlText) {
-                sql.append(" ").append(((XmlText) child).getValue());
+                String value = ((XmlText) child).getValue();
+                if (!dynamic) builder.sql.append(" ").append(value);
+                builder.allText.append(" ").append(value);
+                builder.dynamicSql.append(" ").append(value);
             }
         }
-        return sql.toString();
+    }
+
+    private static void appendAttribute(XmlTag dynamicTag, String attributeName, StringBuilder dynamicSql) {
+        String value = dynamicTag.getAttributeValue(attributeName);
+        if (value != null) dynamicSql.append(" ").append(value);
+    }
+
+    private static void expandInclude(XmlTag includeTag, boolean dynamic, ExpansionBuilder builder) {
+        XmlTag target = resolveInclude(includeTag, builder.dependencies);
+        if (target == null || !target.getName().equals("sql")) return;
+        List<XmlTag> path = EXPANSION_PATH.get();
+        int index = path.indexOf(target);
+        if (index != -1) {   // back edge, the fragment is being expanded already
+            StringBuilder cycle = new StringBuilder();
+            for (XmlTag tag : path.subList(index, path.size())) {
+                cycle.append(tag.getAttributeValue("id")).append(" -> ");
+            }
+            builder.addCycle(cycle.append(target.getAttributeValue("id")).toString(), index);
+            return;
+        }
+        Expansion fragment = getExpansion(target);
+        Collections.addAll(builder.dependencies, fragment.dependencies);
+        if (!dynamic) builder.sql.append(" ").append(fragment.sql);
+        builder.allText.append(" ").append(fragment.allText);
+        builder.dynamicSql.append(" ").append(fragment.dynamicSql);
+        if (fragment.cycle != null) builder.addCycle(fragment.cycle, fragment.backEdgeIndex);
+    }
+
+    /**
+     * resolve the sql fragment of include tag, the file of fragment is added to dependencies
+     *
+     * @param includeTag   include tag
+     * @param dependencies dependencies of cached text
+     * @return sql tag, null if not found
+     */
+    @Nullable
+    private static XmlTag resolveInclude(XmlTag includeTag, Set<Object> dependencies) {
+        XmlAttribute refid = includeTag.getAttribute("refid");
+        if (refid == null || refid.getValueElement() == null || StringUtil.isEmpty(refid.getValue())) return null;
+        PsiReference reference = refid.getValueElement().getReference();
+        PsiElement psiElement = reference == null ? null : reference.resolve();
+        if (psiElement instanceof XmlTag) {
+            dependencies.add(psiElement.getContainingFile());
+            return (XmlTag) psiElement;
+        }
+        dependencies.add(PsiModificationTracker.MODIFICATION_COUNT);   //fragment may be declared later
+        return null;
+    }
+
+    /**
+     * expanded text of statement or sql tag
+     */
+    private static class Expansion {
+        private final String sql;
+        private final String allText;
+        private final String dynamicSql;
+        private final String cycle;
+        // index in expansion path of the outermost tag which a back edge inside goes to, NO_BACK_EDGE if none above this tag
+        private final int backEdgeIndex;
+        private final Object[] dependencies;
+
+        private Expansion(String sql, String allText, String dynamicSql, String cycle, int backEdgeIndex, Object[] dependencies) {
+            this.sql = sql;
+            this.allText = allText;
+            this.dynamicSql = dynamicSql;
+            this.cycle = cycle;
+            this.backEdgeIndex = backEdgeIndex;
+            this.dependencies = dependencies;
+        }
+    }
+
+    /**
+     * text and state collected while a tag is expanded
+     */
+    private static class ExpansionBuilder {
+        private final StringBuilder sql = new StringBuilder();
+        private final StringBuilder allText = new StringBuilder();
+        private final StringBuilder dynamicSql = new StringBuilder();
+        private final Set<Object> dependencies = new HashSet<Object>();
+        private String cycle;
+        private int backEdgeIndex = NO_BACK_EDGE;
+
+        private void addCycle(String includeCycle, int index) {
+            if (cycle == null) cycle = includeCycle;
+            if (index < backEdgeIndex) backEdgeIndex = index;
+        }
+    }
+
+    /**
+     * get namespace of SQL Map file, cached until the file changed
+     *
+     * @param sqlMapFile SQL Map file
+     * @return namespace, empty string if not declared
+     */
+    @NotNull
+    public static String getNamespace(@NotNull final XmlFile sqlMapFile) {
+        CachedValue<String> cachedValue = sqlMapFile.getUserData(NAMESPACE_KEY);
+        if (cachedValue == null) {
+            cachedValue = CachedValuesManager.getManager(sqlMapFile.getProject()).createCachedValue(new CachedValueProvider<String>() {
+                public Result<String> compute() {
+                    String namespace = null;
+                    XmlDocument document = sqlMapFile.getDocument();
+                    if (document != null && document.getRootTag() != null) {
+                        namespace = document.getRootTag().getAttributeValue("namespace");
+                    }
+                    return Result.create(namespace == null ? "" : namespace, sqlMapFile);
+                }
+            }, false);
+            sqlMapFile.putUserData(NAMESPACE_KEY, cachedValue);
+        }
+        return cachedValue.getValue();
+    }
+
+    /**
+     * validate useStatementNamespaces enabled in module, cached until configuration files changed
+     *
+     * @param module module
+     * @return useStatementNamespaces mark
+     */
+    public static boolean isUseStatementNamespaces(@Nullable final Module module) {
+        if (module == null) return false;
+        CachedValue<Boolean> cachedValue = module.getUserData(STATEMENT_NAMESPACES_KEY);
+        if (cachedValue == null) {
+            cachedValue = CachedValuesManager.getManager(module.getProject()).createCachedValue(new CachedValueProvider<Boolean>() {
+                public Result<Boolean> compute() {
+                    IbatisConfigurationModelFactory modelFactory = IbatisProjectComponent.getInstance(module.getProject()).getConfigurationModelFactory();
+                    List<Object> dependencies = new ArrayList<Object>();
+                    dependencies.add(modelFactory.getConfigurationFilesTracker());
+                    dependencies.add(ProjectRootManager.getInstance(module.getProject()));
+                    Set<XmlFile> configFiles = modelFactory.getAllSqlMapConfigurationFile(module);
+                    if (configFiles != null) dependencies.addAll(configFiles);
+                    IbatisConfigurationModel model = IbatisManager.getInstance().getConfigurationModel(module);
+                    return Result.create(model != null && model.isUseStatementNamespaces(), dependencies.toArray());
+                }
+            }, false);
+            module.putUserData(STATEMENT_NAMESPACES_KEY, cachedValue);
+        }
+        return cachedValue.getValue();
+    }
+
+    /**
+     * validate iBATIS facet is added to module, cached until facets changed
+     *
+     * @param module module
+     * @return iBATIS module mark
+     */
+    public static boolean isIbatisModule(@Nullable final Module module) {
+        if (module == null) return false;
+        CachedValue<Boolean> cachedValue = module.getUserData(IBATIS_MODULE_KEY);
+        if (cachedValue == null) {
+            cachedValue = CachedValuesManager.getManager(module.getProject()).createCachedValue(new CachedValueProvider<Boolean>() {
+                public Result<Boolean> compute() {
+                    ModificationTracker facetsTracker = IbatisProjectComponent.getInstance(module.getProject()).getFacetsTracker();
+                    return Result.create(IbatisFacet.getInstance(module) != null, facetsTracker);
+                }
+            }, false);
+            module.putUserData(IBATIS_MODULE_KEY, cachedValue);
+        }
+        return cachedValue.getValue();
+    }
+
+    /**
+     * get the statement kinds accepted by SqlMapClient, SqlMapExecutor, SqlMapSession or SqlMapClientTemplate method,
+     * cached in method until Java structure changed
+     *
+     * @param method called method
+     * @return statement kinds, empty if the method doesn't execute statement
+     */
+    @NotNull
+    public static SqlMapElementKind[] getStatementKinds(@Nullable final PsiMethod method) {
+        if (method == null) return NO_KINDS;
+        CachedValue<SqlMapElementKind[]> cachedValue = method.getUserData(STATEMENT_KINDS_KEY);
+        if (cachedValue == null) {
+            cachedValue = CachedValuesManager.getManager(method.getProject()).createCachedValue(new CachedValueProvider<SqlMapElementKind[]>() {
+                public Result<SqlMapElementKind[]> compute() {
+                    SqlMapElementKind[] kinds = isSqlMapClientMethod(method) ? getStatementKinds(method.getName().toLowerCase()) : NO_KINDS;
+                    return Result.create(kinds, PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+                }
+            }, false);
+            method.putUserData(STATEMENT_KINDS_KEY, cachedValue);
+        }
+        return cachedValue.getValue();
+    }
+
+    /**
+     * validate the method is declared in SqlMapClient family, or overrides method of it
+     *
+     * @param method method
+     * @return SqlMapClient method mark
+     */
+    private static boolean isSqlMapClientMethod(PsiMethod method) {
+        if (isSqlMapClientClass(method.getContainingClass())) return true;
+        for (PsiMethod superMethod : method.findSuperMethods()) {
+            if (isSqlMapClientClass(superMethod.getContainingClass())) return true;
+        }
+        return false;
+    }
+
+    private static boolean isSqlMapClientClass(@Nullable PsiClass psiClass) {
+        String className = psiClass == null ? null : psiClass.getQualifiedName();
+        if (className == null) return false;
+        for (String sqlMapClientClass : SQL_MAP_CLIENT_CLASSES) {
+            if (sqlMapClientClass.equals(className)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * get the statement kinds accepted by SqlMapClient method
+     *
+     * @param methodName method name in lower case
+     * @return statement kinds
+     */
+    private static SqlMapElementKind[] getStatementKinds(String methodName) {
+        if (methodName.equals("insert")) {
+            return new SqlMapElementKind[]{SqlMapElementKind.INSERT};
+        } else if (methodName.equals("update")) {   //update can be used to execute delete, procedure and insert
+            return new SqlMapElementKind[]{SqlMapElementKind.UPDATE, SqlMapElementKind.DELETE, SqlMapElementKind.PROCEDURE, SqlMapElementKind.INSERT};
+        } else if (methodName.equals("delete")) {
+            return new SqlMapElementKind[]{SqlMapElementKind.DELETE};
+        } else if (methodName.startsWith("queryfor") || methodName.equals("querywithrowhandler")) {
+            return new SqlMapElementKind[]{SqlMapElementKind.SELECT, SqlMapElementKind.STATEMENT, SqlMapElementKind.PROCEDURE};
+        }
+        return NO_KINDS;
+    }
+
+    /**
+     * get unique name for id declared in SQL Map file, namespace is prefixed if useStatementNamespaces enabled
+     *
+     * @param sqlMapFile SQL Map file
+     * @param id         id of element
+     * @return unique name
+     */
+    @NotNull
+    public static String getUniqueName(@NotNull XmlFile sqlMapFile, @NotNull String id) {
+        if (!isUseStatementNamespaces(ModuleUtil.findModuleForPsiElement(sqlMapFile))) return id;
+        String namespace = getNamespace(sqlMapFile);
+        return namespace.length() > 0 ? namespace + "." + id : id;
     }
 
     /**
@@ -0,0 +1,135 @@
+package org.intellij.ibatis.util;
+
+import org.intellij.ibatis.model.InlineParameter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * scanner for in line parameters in SQL text: #prop#, #prop:JDBCTYPE:nullValue#, #prop,javaType=..,jdbcType=..#
+ * and $prop$. the text is scanned once, ## and $$ are escaped marks.
+ */
+public class InlineParameterScanner {
+
+    /**
+     * find all in line parameters in text
+     *
+     * @param text SQL text
+     * @return in line parameters in text order
+     */
+    @NotNull
+    public static List<InlineParameter> scan(@NotNull CharSequence text) {
+        List<InlineParameter> parameters = new ArrayList<InlineParameter>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char mark = text.charAt(i);
+            if (mark != '#' && mark != '$') {
+                i++;
+                continue;
+            }
+            int end = findClosingMark(text, i + 1, mark);
+            if (end == i + 1) {    //escaped mark
+                i += 2;
+            } else if (end == -1) {    //not a parameter, the mark may open next one
+                i++;
+            } else {
+                InlineParameter parameter = parse(text, i + 1, end);
+                if (parameter != null) {
+                    parameter.setOffset(i);
+                    parameter.setLength(end + 1 - i);
+                    parameter.setSubstitution(mark == '$');
+                    parameters.add(parameter);
+                    i = end + 1;
+                } else {
+                    i++;
+                }
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * find closing mark on the same line
+     *
+     * @param text  SQL text
+     * @param start offset after opening mark
+     * @param mark  # or $
+     * @return offset of closing mark, -1 if not found
+     */
+    private static int findClosingMark(CharSequence text, int start, char mark) {
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == mark) return i;
+            if (c == '\n' || c == '\r') return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * parse parameter body between marks
+     *
+     * @param text  SQL text
+     * @param start start offset of body
+     * @param end   end offset of body
+     * @return in line parameter, null if body isn't a parameter
+     */
+    private static InlineParameter parse(CharSequence text, int start, int end) {
+        int nameEnd = start;
+        while (nameEnd < end && isNameChar(text.charAt(nameEnd))) nameEnd++;
+        if (nameEnd == start || !Character.isJavaIdentifierStart(text.charAt(start))) return null;
+        int i = skipSpaces(text, nameEnd, end);
+        InlineParameter parameter = new InlineParameter();
+        String name = text.subSequence(start, nameEnd).toString();
+        parameter.setName(name.endsWith("[]") ? name.substring(0, name.length() - 2) : name);
+        if (i == end) return parameter;
+        char separator = text.charAt(i);
+        if (separator == ':') {    //prop:JDBCTYPE:nullValue
+            int typeEnd = indexOf(text, ':', i + 1, end);
+            parameter.setJdbcType(trim(text, i + 1, typeEnd));
+            if (typeEnd < end) parameter.setNullValue(trim(text, typeEnd + 1, end));
+        } else if (separator == ',') {    //prop,javaType=int,jdbcType=NUMERIC
+            while (i < end) {
+                int itemEnd = indexOf(text, ',', i + 1, end);
+                int equals = indexOf(text, '=', i + 1, itemEnd);
+                if (equals < itemEnd) {
+                    String key = trim(text, i + 1, equals);
+                    String value = trim(text, equals + 1, itemEnd);
+                    if (key.equals("jdbcType")) {
+                        parameter.setJdbcType(value);
+                    } else if (key.equals("javaType")) {
+                        parameter.setJavaType(value);
+                    } else if (key.equals("nullValue")) {
+                        parameter.setNullValue(value);
+                    }
+                }
+                i = itemEnd;
+            }
+        } else {
+            return null;
+        }
+        return parameter;
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isJavaIdentifierPart(c) || c == '.' || c == '[' || c == ']';
+    }
+
+    private static int skipSpaces(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && (text.charAt(i) == ' ' || text.charAt(i) == '\t')) i++;
+        return i;
+    }
+
+    private static int indexOf(CharSequence text, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) return i;
+        }
+        return end;
+    }
+
+    private static String trim(CharSequence text, int start, int end) {
+        return text.subSequence(start, end).toString().trim();
+    }
+}
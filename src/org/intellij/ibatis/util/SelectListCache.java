@@ -0,0 +1,46 @@
+package org.intellij.ibatis.util;
+
+import org.intellij.ibatis.model.SelectList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * cache of extracted select lists shared by all SQL Map files, keyed by the SQL code of select.
+ * the SQL is scanned only when it isn't in cache, SQL which isn't a query is kept too so it isn't scanned again.
+ *
+ * @author Jacky
+ */
+public class SelectListCache {
+    private static final int MAX_SIZE = 1000;
+    private static final SelectList NOT_AVAILABLE = new SelectList();
+    private static final Map<String, SelectList> cache = new LinkedHashMap<String, SelectList>(MAX_SIZE, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<String, SelectList> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    /**
+     * get select list of SQL, least recently used lists are dropped when cache is full
+     *
+     * @param sql SQL code of select
+     * @return select list, null if the SQL isn't a query
+     */
+    @Nullable
+    public static SelectList getSelectList(@NotNull String sql) {
+        SelectList selectList;
+        synchronized (cache) {
+            selectList = cache.get(sql);
+        }
+        if (selectList == null) {
+            selectList = SelectListExtractor.extract(sql);
+            if (selectList == null) selectList = NOT_AVAILABLE;
+            synchronized (cache) {
+                cache.put(sql, selectList);
+            }
+        }
+        return selectList == NOT_AVAILABLE ? null : selectList;
+    }
+}
@@ -0,0 +1,373 @@
+package org.intellij.ibatis.util;
+
+import org.intellij.ibatis.model.SelectList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * extract the top level select items and FROM tables of query in one pass over the tokens of SQL, the tokens
+ * inside parentheses are skipped, so functions, sub queries and vendor syntax don't need to be understood.
+ * #prop# and $prop$ are single tokens, ${key} is a part of name. ITEM_BOUNDARY marks the start and end of
+ * dynamic tag, the current select item is finished there, so the parts of exclusive branches aren't joined.
+ *
+ * @author Jacky
+ */
+public class SelectListExtractor {
+    /**
+     * mark of dynamic tag boundary, the char can't appear in xml text
+     */
+    public static final char ITEM_BOUNDARY = '\0';
+    private static final int EOF = 0;
+    private static final int WORD = 1;
+    private static final int LITERAL = 2;
+    private static final int NUMBER = 3;
+    private static final int PLACEHOLDER = 4;
+    private static final int OPEN = 5;
+    private static final int CLOSE = 6;
+    private static final int COMMA = 7;
+    private static final int SEMICOLON = 8;
+    private static final int OTHER = 9;
+    private static final int BOUNDARY = 10;
+
+    private static final int BEFORE_SELECT = 0;
+    private static final int SELECT_ITEMS = 1;
+    private static final int INTO = 2;
+    private static final int TABLE_EXPECTED = 3;
+    private static final int AFTER_TABLE = 4;
+
+    /**
+     * words which can't end an operand, so the word after them isn't an alias
+     */
+    private static final Set<String> OPERATOR_WORDS = new HashSet<String>(Arrays.asList("AND", "OR", "NOT", "IS", "IN", "LIKE",
+            "BETWEEN", "CASE", "WHEN", "THEN", "ELSE", "AS", "DISTINCT", "ALL", "ESCAPE", "PRIOR"));
+    private static final Set<String> NOT_ALIAS = new HashSet<String>(Arrays.asList("END", "NULL", "TRUE", "FALSE"));
+    private static final Set<String> SELECT_MODIFIERS = new HashSet<String>(Arrays.asList("DISTINCT", "ALL", "UNIQUE",
+            "DISTINCTROW", "STRAIGHT_JOIN", "SQL_CALC_FOUND_ROWS", "SQL_NO_CACHE", "SQL_CACHE", "HIGH_PRIORITY"));
+    private static final Set<String> SET_OPERATORS = new HashSet<String>(Arrays.asList("UNION", "INTERSECT", "EXCEPT", "MINUS"));
+    private static final Set<String> FROM_END = new HashSet<String>(Arrays.asList("WHERE", "GROUP", "ORDER", "HAVING", "LIMIT",
+            "UNION", "INTERSECT", "EXCEPT", "MINUS", "CONNECT", "START", "FOR", "OFFSET", "FETCH", "WINDOW", "RETURNING"));
+
+    private final String sql;
+    private int position = 0;
+    private int tokenStart;
+    private int tokenEnd;
+    // current select item, only the top level tokens are kept for alias detection
+    private int itemStart;
+    private int itemEnd;
+    private int itemTokens;
+    private int lastType;
+    private int lastStart;
+    private int lastEnd;
+    private int previousType;
+    private int previousStart;
+    private int previousEnd;
+
+    private SelectListExtractor(String sql) {
+        this.sql = sql;
+    }
+
+    /**
+     * extract select list of query
+     *
+     * @param sql SQL code
+     * @return select list, null if no top level SELECT found
+     */
+    @Nullable
+    public static SelectList extract(@NotNull String sql) {
+        return new SelectListExtractor(sql).extract();
+    }
+
+    private SelectList extract() {
+        SelectList selectList = null;
+        int state = BEFORE_SELECT;
+        int depth = 0;
+        int type;
+        while ((type = nextToken()) != EOF) {
+            if (type == BOUNDARY) {
+                if (state == SELECT_ITEMS && depth == 0) finishItem(selectList);
+                continue;
+            }
+            if (type == CLOSE && depth > 0) depth--;
+            int tokenDepth = depth;
+            if (type == OPEN) depth++;
+            if (tokenDepth > 0) {
+                if (state == SELECT_ITEMS) itemEnd = tokenEnd;
+                continue;
+            }
+            switch (state) {
+                case BEFORE_SELECT:
+                    if (isKeyword("SELECT")) {
+                        selectList = new SelectList();
+                        state = SELECT_ITEMS;
+                    }
+                    break;
+                case SELECT_ITEMS:
+                    if (type == COMMA) {
+                        finishItem(selectList);
+                    } else if (isKeyword("FROM")) {
+                        finishItem(selectList);
+                        state = TABLE_EXPECTED;
+                    } else if (isKeyword("INTO")) {    //select into variables
+                        finishItem(selectList);
+                        state = INTO;
+                    } else if (type == SEMICOLON || (type == WORD && SET_OPERATORS.contains(getUpperCaseToken()))) {
+                        finishItem(selectList);
+                        return selectList;
+                    } else if (itemTokens == 0 && type == WORD && SELECT_MODIFIERS.contains(getUpperCaseToken())) {
+                        break;
+                    } else if (itemTokens == 0 && isKeyword("TOP")) {
+                        skipTopCount();
+                    } else {
+                        addToItem(type);
+                    }
+                    break;
+                case INTO:
+                    if (isKeyword("FROM")) state = TABLE_EXPECTED;
+                    break;
+                case TABLE_EXPECTED:
+                    if (type == SEMICOLON || (type == WORD && FROM_END.contains(getUpperCaseToken()))) return selectList;
+                    if (type == WORD && !isKeyword("LATERAL") && !isKeyword("ONLY")) {
+                        selectList.addTable(sql.substring(tokenStart, tokenEnd));
+                        state = AFTER_TABLE;
+                    } else if (type == PLACEHOLDER) {
+                        selectList.addTable(sql.substring(tokenStart, tokenEnd));
+                        state = AFTER_TABLE;
+                    } else if (type == OPEN) {     //sub query or table function
+                        state = AFTER_TABLE;
+                    }
+                    break;
+                case AFTER_TABLE:
+                    if (type == SEMICOLON || (type == WORD && FROM_END.contains(getUpperCaseToken()))) return selectList;
+                    if (type == COMMA || isKeyword("JOIN") || isKeyword("APPLY")) state = TABLE_EXPECTED;
+                    break;
+            }
+        }
+        if (state == SELECT_ITEMS) finishItem(selectList);
+        return selectList;
+    }
+
+    /**
+     * skip count of "TOP n" or "TOP (n)"
+     */
+    private void skipTopCount() {
+        if (nextToken() != OPEN) return;
+        int level = 1;
+        int type;
+        while (level > 0 && (type = nextToken()) != EOF) {
+            if (type == OPEN) level++;
+            if (type == CLOSE) level--;
+        }
+    }
+
+    private void addToItem(int type) {
+        if (itemTokens == 0) itemStart = tokenStart;
+        itemEnd = tokenEnd;
+        itemTokens++;
+        previousType = lastType;
+        previousStart = lastStart;
+        previousEnd = lastEnd;
+        lastType = type;
+        lastStart = tokenStart;
+        lastEnd = tokenEnd;
+    }
+
+    /**
+     * add current select item to select list, the label is the alias, the column name or the whole expression
+     *
+     * @param selectList select list
+     */
+    private void finishItem(SelectList selectList) {
+        if (itemTokens == 0) return;
+        int count = itemTokens;
+        itemTokens = 0;
+        if (lastType == OTHER && sql.charAt(lastStart) == '*'
+                && (count == 1 || (previousType == WORD && previousEnd == lastStart && sql.charAt(previousEnd - 1) == '.'))) {   // * or t.*
+            selectList.setWildcard(true);
+            return;
+        }
+        if (count > 1 && lastType == WORD && !NOT_ALIAS.contains(sql.substring(lastStart, lastEnd).toUpperCase())) {
+            String previousWord = previousType == WORD ? sql.substring(previousStart, previousEnd).toUpperCase() : null;
+            if ("AS".equals(previousWord)) {
+                selectList.addColumn(getLastPart(lastStart, lastEnd), getText(itemStart, previousStart).trim());
+                return;
+            }
+            if (isOperandEnd(previousType, previousWord)) {
+                selectList.addColumn(getLastPart(lastStart, lastEnd), getText(itemStart, lastStart).trim());
+                return;
+            }
+        }
+        String expression = getText(itemStart, itemEnd);
+        if (count == 1 && lastType == WORD && itemEnd == lastEnd) {  // column name, may be qualified by table
+            selectList.addColumn(getLastPart(lastStart, lastEnd), expression);
+        } else {
+            selectList.addColumn(expression, expression);
+        }
+    }
+
+    /**
+     * get text of item, the boundaries of dynamic tags inside parentheses are replaced by space
+     */
+    private String getText(int start, int end) {
+        return sql.substring(start, end).replace(ITEM_BOUNDARY, ' ');
+    }
+
+    private static boolean isOperandEnd(int type, String word) {
+        if (type == WORD) return !OPERATOR_WORDS.contains(word);
+        return type == LITERAL || type == NUMBER || type == PLACEHOLDER || type == CLOSE;
+    }
+
+    /**
+     * get name after last dot with quotes removed, such as "name" for t."name"
+     *
+     * @param start start offset of name
+     * @param end   end offset of name
+     * @return last part of name
+     */
+    private String getLastPart(int start, int end) {
+        char last = sql.charAt(end - 1);
+        if ((last == '"' || last == '`') && end - start > 1) {
+            int open = sql.lastIndexOf(last, end - 2);
+            if (open >= start) return sql.substring(open + 1, end - 1);
+        }
+        int dot = sql.lastIndexOf('.', end - 1);
+        return sql.substring(dot >= start ? dot + 1 : start, end);
+    }
+
+    private boolean isKeyword(String keyword) {
+        return tokenEnd - tokenStart == keyword.length() && sql.regionMatches(true, tokenStart, keyword, 0, keyword.length());
+    }
+
+    private String getUpperCaseToken() {
+        return sql.substring(tokenStart, tokenEnd).toUpperCase();
+    }
+
+    /**
+     * read next token, white spaces and comments are skipped
+     *
+     * @return token type
+     */
+    private int nextToken() {
+        int length = sql.length();
+        while (position < length) {
+            char c = sql.charAt(position);
+            if (Character.isWhitespace(c)) {
+                position++;
+            } else if (c == '-' && position + 1 < length && sql.charAt(position + 1) == '-') {
+                int end = sql.indexOf('\n', position);
+                position = end == -1 ? length : end + 1;
+            } else if (c == '/' && position + 1 < length && sql.charAt(position + 1) == '*') {   //comment or hint
+                int end = sql.indexOf("*/", position + 2);
+                position = end == -1 ? length : end + 2;
+            } else {
+                break;
+            }
+        }
+        tokenStart = position;
+        int type = readToken();
+        tokenEnd = position;
+        return type;
+    }
+
+    private int readToken() {
+        int length = sql.length();
+        if (position >= length) return EOF;
+        char c = sql.charAt(position);
+        switch (c) {
+            case '(':
+                position++;
+                return OPEN;
+            case ')':
+                position++;
+                return CLOSE;
+            case ',':
+                position++;
+                return COMMA;
+            case ';':
+                position++;
+                return SEMICOLON;
+            case ITEM_BOUNDARY:
+                position++;
+                return BOUNDARY;
+            case '\'':
+                position = skipQuoted(position, '\'');
+                return LITERAL;
+        }
+        if ((c == '#' || c == '$') && !isPropertyKey(position)) {
+            int end = findClosingMark(position + 1, c);
+            if (end > position + 1) {
+                position = end + 1;
+                return PLACEHOLDER;
+            }
+        }
+        if (Character.isDigit(c)) {
+            while (position < length && (Character.isLetterOrDigit(sql.charAt(position)) || sql.charAt(position) == '.')) position++;
+            return NUMBER;
+        }
+        if (Character.isJavaIdentifierStart(c) || c == '"' || c == '`') {
+            readWord();
+            return WORD;
+        }
+        position++;
+        return OTHER;
+    }
+
+    /**
+     * read name which may be qualified, quoted or contain ${key}
+     */
+    private void readWord() {
+        int length = sql.length();
+        while (position < length) {
+            char c = sql.charAt(position);
+            if (c == '"' || c == '`') {
+                position = skipQuoted(position, c);
+            } else if (isPropertyKey(position)) {
+                int end = sql.indexOf('}', position);
+                position = end == -1 ? length : end + 1;
+            } else if ((Character.isJavaIdentifierPart(c) && c != ITEM_BOUNDARY) || c == '.' || c == '@') {
+                position++;
+            } else {
+                break;
+            }
+        }
+    }
+
+    private boolean isPropertyKey(int offset) {
+        return sql.charAt(offset) == '$' && offset + 1 < sql.length() && sql.charAt(offset + 1) == '{';
+    }
+
+    /**
+     * skip quoted text, doubled quote is escaped quote
+     *
+     * @param start offset of opening quote
+     * @param quote quote char
+     * @return offset after closing quote
+     */
+    private int skipQuoted(int start, char quote) {
+        int length = sql.length();
+        int i = start + 1;
+        while (i < length) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private int findClosingMark(int start, char mark) {
+        for (int i = start; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == mark) return i;
+            if (c == '\n' || c == '\r') return -1;
+        }
+        return -1;
+    }
+}